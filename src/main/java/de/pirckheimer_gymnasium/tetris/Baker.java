@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2024 Josef Friedrich and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.pirckheimer_gymnasium.tetris;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+import de.pirckheimer_gymnasium.tetris.text.Glyph;
+
+/**
+ * Bereitet beim Bauen alle Bilder für das Standardfarbschema und die
+ * Standardskalierung vor.
+ *
+ * <p>
+ * Maven ruft diese Klasse in der Phase {@code process-classes} auf (siehe
+ * {@code pom.xml}). Die Bilder der Ordner {@code blocks}, {@code fullscreen}
+ * und {@code glyphs} werden eingefärbt, vergrößert und im Ordner
+ * {@value Image#BAKED_DIRECTORY} des Klassenpfads abgelegt. Die Blöcke werden
+ * zusätzlich mit indizierten Farben im Unterordner
+ * {@value Image#INDEXED_DIRECTORY} abgelegt, da sie der
+ * {@link de.pirckheimer_gymnasium.tetris.tetrominos.GridRenderer} in dieser
+ * Form benötigt. Zur Laufzeit werden diese Bilder unverändert geladen, sodass
+ * beim Start keine Bilder mehr umgerechnet werden müssen.
+ * </p>
+ *
+ * <p>
+ * Die Bilder werden mit {@link ImageIO} gelesen, damit das Backen auch ohne
+ * Bildschirm, z. B. auf einem Build-Server, funktioniert.
+ * </p>
+ *
+ * @author Josef Friedrich
+ */
+public class Baker
+{
+    /**
+     * Der Ordner mit den Ausgangsbildern, z. B. {@code src/main/resources}.
+     */
+    private final File resources;
+
+    /**
+     * Der Ordner, in den die vorbereiteten Bilder geschrieben werden, z. B.
+     * {@code target/classes/baked}.
+     */
+    private final File output;
+
+    /**
+     * Die Anzahl der bisher geschriebenen Bilder.
+     */
+    private int count;
+
+    /**
+     * @param resources Der Ordner mit den Ausgangsbildern.
+     * @param classes   Der Ordner mit den übersetzten Klassen, in dem der
+     *                  Ordner {@value Image#BAKED_DIRECTORY} angelegt wird.
+     */
+    public Baker(File resources, File classes)
+    {
+        this.resources = resources;
+        output = new File(classes, Image.BAKED_DIRECTORY);
+    }
+
+    /**
+     * Bereitet alle Bilder vor.
+     *
+     * @return Die Anzahl der geschriebenen Bilder.
+     */
+    public int bake() throws IOException
+    {
+        for (String block : Preloader.BLOCKS)
+        {
+            String pathname = "blocks/" + block + ".png";
+            bakeImage(pathname);
+            writeIndexed(Image.processIndexed(read(pathname), Tetris.SCALE),
+                    Image.INDEXED_DIRECTORY + pathname);
+        }
+        for (String fullscreen : Preloader.FULLSCREEN)
+        {
+            bakeImage("fullscreen/" + fullscreen + ".png");
+        }
+        for (Color color : Preloader.GLYPH_COLORS)
+        {
+            for (char glyph : Preloader.GLYPHS.toCharArray())
+            {
+                BufferedImage image = read(Glyph.getImagePath(glyph));
+                write(Glyph.process(image, color, Tetris.SCALE),
+                        Glyph.getBakedPath(glyph, color));
+            }
+        }
+        return count;
+    }
+
+    private void bakeImage(String pathname) throws IOException
+    {
+        write(Image.process(read(pathname), Tetris.COLOR_SCHEME_GREEN,
+                Tetris.SCALE), pathname);
+    }
+
+    /**
+     * Schreibt die Farbindizes eines Bilds als Grauwerte. Beim Schreiben mit
+     * einer Farbpalette würde {@link ImageIO} die Reihenfolge der Einträge
+     * ändern und damit auch die Indizes.
+     */
+    private void writeIndexed(BufferedImage image, String pathname)
+            throws IOException
+    {
+        BufferedImage samples = new BufferedImage(image.getWidth(),
+                image.getHeight(), BufferedImage.TYPE_BYTE_GRAY);
+        samples.getRaster().setRect(image.getRaster());
+        write(samples, pathname);
+    }
+
+    private BufferedImage read(String pathname) throws IOException
+    {
+        File file = new File(resources, pathname);
+        BufferedImage image = ImageIO.read(file);
+        if (image == null)
+        {
+            throw new RuntimeException(
+                    "Das Bild konnte nicht gelesen werden: " + file);
+        }
+        return image;
+    }
+
+    private void write(BufferedImage image, String pathname) throws IOException
+    {
+        File file = new File(output, pathname);
+        file.getParentFile().mkdirs();
+        ImageIO.write(image, "png", file);
+        count++;
+    }
+
+    /**
+     * @param args Der Ordner mit den Ausgangsbildern und der Ordner mit den
+     *             übersetzten Klassen.
+     */
+    public static void main(String[] args) throws IOException
+    {
+        if (args.length != 2)
+        {
+            throw new RuntimeException(
+                    "Aufruf: Baker <Ordner mit Ressourcen> <Ordner mit Klassen>");
+        }
+        Baker baker = new Baker(new File(args[0]), new File(args[1]));
+        System.out.println(String.format("%d Bilder gebacken", baker.bake()));
+    }
+}
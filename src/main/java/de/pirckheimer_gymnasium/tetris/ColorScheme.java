@@ -17,6 +17,7 @@
 package de.pirckheimer_gymnasium.tetris;
 
 import java.awt.Color;
+import java.awt.image.IndexColorModel;
 
 import de.pirckheimer_gymnasium.engine_pi.util.ColorUtil;
 
@@ -30,11 +31,31 @@ import de.pirckheimer_gymnasium.engine_pi.util.ColorUtil;
  * ({@code black}), obwohl diese Farbnamen nicht den tatsächlichen Farben
  * entsprechen.
  * </p>
+ *
+ * <p>
+ * Mit {@link #getIndexColorModel()} kann ein Farbschema auch als Farbpalette
+ * für Bilder mit indizierten Farben verwendet werden. Ein solches Bild
+ * speichert pro Pixel nur den Index {@code 0} bis {@code 3} der Farbe. Wird die
+ * Palette ausgetauscht, ändern sich alle Farben, ohne dass ein Pixel neu
+ * berechnet werden muss.
+ * </p>
  */
 public class ColorScheme
 {
+    /**
+     * Der Index der durchsichtigen Farbe in der Farbpalette. Die Indizes
+     * {@code 0} bis {@code 3} stehen für die vier Farben des Farbschemas.
+     */
+    public static final int TRANSPARENT_INDEX = 4;
+
     private Color[] colors;
 
+    /**
+     * Die Farbpalette dieses Farbschemas. Sie wird erst bei der ersten
+     * Verwendung erzeugt.
+     */
+    private IndexColorModel indexColorModel;
+
     /**
      * Erzeugt eine <b>neues Farbschema</b> durch Angabe von
      * <b>{@link Color}-Objekten</b>.
@@ -150,4 +171,68 @@ public class ColorScheme
     {
         return new ColorScheme("#aaaa00", "#556633", "#335544", "#223322");
     }
+
+    /**
+     * Gibt das Farbschema als Farbpalette mit fünf Einträgen zurück: die vier
+     * Farben in der Reihenfolge Weiß, Hell, Dunkel und Schwarz und eine
+     * durchsichtige Farbe mit dem Index {@link #TRANSPARENT_INDEX}.
+     *
+     * <p>
+     * Alle Paletten verwenden ein Byte pro Pixel. Ein Raster kann daher mit der
+     * Palette eines beliebigen Farbschemas angezeigt werden.
+     * </p>
+     *
+     * @return Die Farbpalette dieses Farbschemas.
+     */
+    public synchronized IndexColorModel getIndexColorModel()
+    {
+        if (indexColorModel == null)
+        {
+            byte[] r = new byte[TRANSPARENT_INDEX + 1];
+            byte[] g = new byte[TRANSPARENT_INDEX + 1];
+            byte[] b = new byte[TRANSPARENT_INDEX + 1];
+            for (int i = 0; i < colors.length; i++)
+            {
+                r[i] = (byte) colors[i].getRed();
+                g[i] = (byte) colors[i].getGreen();
+                b[i] = (byte) colors[i].getBlue();
+            }
+            indexColorModel = new IndexColorModel(8, TRANSPARENT_INDEX + 1, r,
+                    g, b, TRANSPARENT_INDEX);
+        }
+        return indexColorModel;
+    }
+
+    /**
+     * Gibt den Index der Farbe dieses Farbschemas zurück, die einer angegebenen
+     * Farbe am nächsten kommt.
+     *
+     * @param argb Die Farbe als ARGB-Wert.
+     *
+     * @return Ein Index von {@code 0} bis {@code 3} oder
+     *         {@link #TRANSPARENT_INDEX}, wenn die Farbe vollständig
+     *         durchsichtig ist.
+     */
+    public int getIndex(int argb)
+    {
+        if (argb >>> 24 == 0)
+        {
+            return TRANSPARENT_INDEX;
+        }
+        int index = 0;
+        int minDistance = Integer.MAX_VALUE;
+        for (int i = 0; i < colors.length; i++)
+        {
+            int dR = (argb >> 16 & 0xFF) - colors[i].getRed();
+            int dG = (argb >> 8 & 0xFF) - colors[i].getGreen();
+            int dB = (argb & 0xFF) - colors[i].getBlue();
+            int distance = dR * dR + dG * dG + dB * dB;
+            if (distance < minDistance)
+            {
+                minDistance = distance;
+                index = i;
+            }
+        }
+        return index;
+    }
 }
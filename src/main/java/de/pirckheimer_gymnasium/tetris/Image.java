@@ -16,7 +16,15 @@
  */
 package de.pirckheimer_gymnasium.tetris;
 
+import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.net.URL;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.imageio.ImageIO;
 
 import de.pirckheimer_gymnasium.engine_pi.Resources;
 import de.pirckheimer_gymnasium.engine_pi.util.ImageUtil;
@@ -27,9 +35,93 @@ import de.pirckheimer_gymnasium.engine_pi.util.ImageUtil;
  * <p>
  * Bereitet die Bilder für die Verwendung in Tetris vor.
  * </p>
+ *
+ * <p>
+ * Die vorbereiteten Bilder werden zwischengespeichert (Fliegengewicht, engl.
+ * flyweight). Alle Bilder mit demselben Pfad, Farbschema und derselben
+ * Skalierung teilen sich ein einziges {@link BufferedImage}, das nach dem
+ * Erzeugen nicht mehr verändert wird. Ein neuer Block muss sein Bild daher
+ * nicht erneut einfärben und vergrößern.
+ * </p>
+ *
+ * <p>
+ * Für das Standardfarbschema und die Standardskalierung werden die Bilder
+ * bereits beim Bauen vom {@link Baker} vorbereitet und im Ordner
+ * {@value #BAKED_DIRECTORY} abgelegt. Diese Bilder werden unverändert geladen.
+ * </p>
  */
 public class Image extends de.pirckheimer_gymnasium.engine_pi.actor.Image
 {
+    /**
+     * Der Schlüssel eines zwischengespeicherten Bilds.
+     */
+    private static final class Key
+    {
+        /**
+         * Der relative Pfad zu {@code src/main/resources}.
+         */
+        private final String pathname;
+
+        /**
+         * Das Farbschema, mit dem das Bild eingefärbt ist.
+         */
+        private final ColorScheme colorScheme;
+
+        /**
+         * Der Faktor, um den das Bild vergrößert ist.
+         */
+        private final int scale;
+
+        private Key(String pathname, ColorScheme colorScheme, int scale)
+        {
+            this.pathname = pathname;
+            this.colorScheme = colorScheme;
+            this.scale = scale;
+        }
+
+        @Override
+        public boolean equals(Object other)
+        {
+            if (!(other instanceof Key))
+            {
+                return false;
+            }
+            Key key = (Key) other;
+            return pathname.equals(key.pathname)
+                    && colorScheme == key.colorScheme && scale == key.scale;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(pathname, colorScheme, scale);
+        }
+    }
+
+    /**
+     * Die bereits eingefärbten und vergrößerten Bilder.
+     */
+    private static final Map<Key, BufferedImage> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Die bereits vergrößerten Bilder mit indizierten Farben.
+     *
+     * @see #getIndexed(String)
+     */
+    private static final Map<Key, BufferedImage> indexedCache = new ConcurrentHashMap<>();
+
+    /**
+     * Der Ordner im Klassenpfad, in dem die beim Bauen vorbereiteten Bilder
+     * liegen.
+     */
+    public static final String BAKED_DIRECTORY = "baked/";
+
+    /**
+     * Der Unterordner von {@value #BAKED_DIRECTORY}, in dem die vorbereiteten
+     * Bilder mit indizierten Farben liegen.
+     */
+    public static final String INDEXED_DIRECTORY = "indexed/";
+
     public Image(String pathname)
     {
         super(Image.get(pathname), Tetris.SCALE * Tetris.BLOCK_SIZE);
@@ -54,9 +146,252 @@ public class Image extends de.pirckheimer_gymnasium.engine_pi.actor.Image
      */
     public static BufferedImage get(String pathname)
     {
-        BufferedImage image = Resources.IMAGES.get(pathname);
+        return get(pathname, Tetris.COLOR_SCHEME_GREEN, Tetris.SCALE);
+    }
+
+    /**
+     * Gibt ein vergrößertes und eingefärbtes Bild aus dem Zwischenspeicher
+     * zurück. Ist das Bild noch nicht vorhanden, wird es einmalig erzeugt.
+     *
+     * <p>
+     * Das zurückgegebene Bild wird von allen Aufrufern geteilt und darf nicht
+     * verändert werden.
+     * </p>
+     *
+     * @param pathname    Der relative Pfad zu {@code src/main/resources}.
+     * @param colorScheme Das Farbschema, das die Grautöne des Ausgangsbilds
+     *                    ersetzt.
+     * @param scale       Der Faktor, um den das Bild vergrößert wird.
+     *
+     * @return Das vergrößerte und eingefärbtes Bild.
+     */
+    public static BufferedImage get(String pathname, ColorScheme colorScheme,
+            int scale)
+    {
+        return cache.computeIfAbsent(new Key(pathname, colorScheme, scale),
+                key -> load(key));
+    }
+
+    /**
+     * Gibt ein vergrößertes Bild mit indizierten Farben zurück.
+     *
+     * <p>
+     * Jedes Pixel speichert in einem Byte nur den Index seines Grautons im
+     * {@link Tetris#COLOR_SCHEME_GRAY grauen Farbschema} oder
+     * {@link ColorScheme#TRANSPARENT_INDEX}. Die Farben werden erst beim
+     * Anzeigen über die {@link ColorScheme#getIndexColorModel() Farbpalette}
+     * eines beliebigen Farbschemas bestimmt.
+     * </p>
+     *
+     * <p>
+     * Das zurückgegebene Bild wird von allen Aufrufern geteilt und darf nicht
+     * verändert werden.
+     * </p>
+     *
+     * @param pathname Der relative Pfad zu {@code src/main/resources}.
+     *
+     * @return Das vergrößerte Bild mit der Farbpalette des grauen Farbschemas.
+     */
+    public static BufferedImage getIndexed(String pathname)
+    {
+        return indexedCache.computeIfAbsent(
+                new Key(pathname, Tetris.COLOR_SCHEME_GRAY, Tetris.SCALE),
+                key -> loadIndexed(key.pathname));
+    }
+
+    /**
+     * Lädt ein Bild mit indizierten Farben. Zuerst wird das beim Bauen
+     * vorbereitete Bild gesucht.
+     */
+    private static BufferedImage loadIndexed(String pathname)
+    {
+        BufferedImage baked = readBakedIndexed(pathname);
+        if (baked != null)
+        {
+            return baked;
+        }
+        return processIndexed(Resources.IMAGES.get(pathname), Tetris.SCALE);
+    }
+
+    /**
+     * Vergrößert ein Ausgangsbild und wandelt es in ein Bild mit indizierten
+     * Farben um.
+     *
+     * <p>
+     * Diese Methode benötigt keinen Bildschirm und wird auch beim Bauen vom
+     * {@link Baker} verwendet.
+     * </p>
+     *
+     * @param image Das Ausgangsbild in Grautönen.
+     * @param scale Der Faktor, um den das Bild vergrößert wird.
+     *
+     * @return Ein neues, vergrößertes Bild mit einem Byte pro Pixel.
+     */
+    public static BufferedImage processIndexed(BufferedImage image, int scale)
+    {
+        return toIndexed(ImageUtil.scale(image, scale));
+    }
+
+    /**
+     * Wandelt ein Bild in Grautönen in ein Bild mit indizierten Farben um.
+     *
+     * @param image Das Ausgangsbild in den Grautönen des
+     *              {@link Tetris#COLOR_SCHEME_GRAY grauen Farbschemas}.
+     *
+     * @return Ein neues Bild mit einem Byte pro Pixel.
+     */
+    public static BufferedImage toIndexed(BufferedImage image)
+    {
+        ColorScheme gray = Tetris.COLOR_SCHEME_GRAY;
+        BufferedImage indexed = new BufferedImage(image.getWidth(),
+                image.getHeight(), BufferedImage.TYPE_BYTE_INDEXED,
+                gray.getIndexColorModel());
+        for (int y = 0; y < image.getHeight(); y++)
+        {
+            for (int x = 0; x < image.getWidth(); x++)
+            {
+                indexed.getRaster().setSample(x, y, 0,
+                        gray.getIndex(image.getRGB(x, y)));
+            }
+        }
+        return indexed;
+    }
+
+    /**
+     * Lädt ein Bild. Für das Standardfarbschema und die Standardskalierung wird
+     * zuerst das beim Bauen vorbereitete Bild gesucht.
+     */
+    private static BufferedImage load(Key key)
+    {
+        if (key.colorScheme == Tetris.COLOR_SCHEME_GREEN
+                && key.scale == Tetris.SCALE)
+        {
+            BufferedImage baked = readBaked(key.pathname);
+            if (baked != null)
+            {
+                return baked;
+            }
+        }
+        return process(Resources.IMAGES.get(key.pathname), key.colorScheme,
+                key.scale);
+    }
+
+    /**
+     * Färbt ein Ausgangsbild ein und vergrößert es.
+     *
+     * <p>
+     * Diese Methode benötigt keinen Bildschirm und wird auch beim Bauen vom
+     * {@link Baker} verwendet.
+     * </p>
+     *
+     * @param image       Das Ausgangsbild in Grautönen.
+     * @param colorScheme Das Farbschema, das die Grautöne ersetzt.
+     * @param scale       Der Faktor, um den das Bild vergrößert wird.
+     *
+     * @return Ein neues, eingefärbtes und vergrößertes Bild.
+     */
+    public static BufferedImage process(BufferedImage image,
+            ColorScheme colorScheme, int scale)
+    {
         return ImageUtil.scale(ImageUtil.replaceColors(image,
-                Tetris.COLOR_SCHEME_GRAY.getColors(),
-                Tetris.COLOR_SCHEME_GREEN.getColors()), Tetris.SCALE);
+                Tetris.COLOR_SCHEME_GRAY.getColors(), colorScheme.getColors()),
+                scale);
+    }
+
+    /**
+     * Liest ein beim Bauen vorbereitetes Bild aus dem Ordner
+     * {@value #BAKED_DIRECTORY}.
+     *
+     * @param pathname Der relative Pfad innerhalb des Ordners.
+     *
+     * @return Das Bild oder {@code null}, wenn es kein vorbereitetes Bild gibt,
+     *         z. B. wenn das Spiel direkt aus einer Entwicklungsumgebung ohne
+     *         Maven gestartet wird.
+     *
+     * @throws RuntimeException Wenn das vorbereitete Bild nicht gelesen werden
+     *                          kann.
+     */
+    public static BufferedImage readBaked(String pathname)
+    {
+        URL url = Image.class.getClassLoader()
+                .getResource(BAKED_DIRECTORY + pathname);
+        if (url == null)
+        {
+            return null;
+        }
+        BufferedImage raw = read(url);
+        // ImageIO liefert je nach Datei unterschiedliche Bildtypen. Wir
+        // wandeln in denselben Typ um, den die Einfärbung erzeugt.
+        BufferedImage image = new BufferedImage(raw.getWidth(), raw.getHeight(),
+                BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        try
+        {
+            g.drawImage(raw, 0, 0, null);
+        }
+        finally
+        {
+            g.dispose();
+        }
+        return image;
+    }
+
+    /**
+     * Liest ein beim Bauen vorbereitetes Bild mit indizierten Farben aus dem
+     * Ordner {@value #BAKED_DIRECTORY}{@value #INDEXED_DIRECTORY}.
+     *
+     * <p>
+     * Die Datei speichert die Farbindizes als Grauwerte. Sie werden unverändert
+     * in ein Bild mit der Farbpalette des {@link Tetris#COLOR_SCHEME_GRAY
+     * grauen Farbschemas} kopiert, es wird also kein Pixel umgerechnet.
+     * </p>
+     *
+     * @param pathname Der relative Pfad innerhalb des Ordners.
+     *
+     * @return Das Bild oder {@code null}, wenn es kein vorbereitetes Bild gibt.
+     *
+     * @throws RuntimeException Wenn das vorbereitete Bild nicht gelesen werden
+     *                          kann.
+     */
+    public static BufferedImage readBakedIndexed(String pathname)
+    {
+        URL url = Image.class.getClassLoader()
+                .getResource(BAKED_DIRECTORY + INDEXED_DIRECTORY + pathname);
+        if (url == null)
+        {
+            return null;
+        }
+        BufferedImage raw = read(url);
+        BufferedImage image = new BufferedImage(raw.getWidth(), raw.getHeight(),
+                BufferedImage.TYPE_BYTE_INDEXED,
+                Tetris.COLOR_SCHEME_GRAY.getIndexColorModel());
+        image.getRaster().setRect(raw.getRaster());
+        return image;
+    }
+
+    /**
+     * Liest ein beim Bauen vorbereitetes Bild. Ein beschädigtes Bild wird nicht
+     * stillschweigend durch ein zur Laufzeit vorbereitetes ersetzt.
+     */
+    private static BufferedImage read(URL url)
+    {
+        BufferedImage image;
+        try
+        {
+            image = ImageIO.read(url);
+        }
+        catch (IOException e)
+        {
+            throw new RuntimeException(
+                    "Das vorbereitete Bild konnte nicht gelesen werden: " + url,
+                    e);
+        }
+        if (image == null)
+        {
+            throw new RuntimeException(
+                    "Das vorbereitete Bild konnte nicht gelesen werden: "
+                            + url);
+        }
+        return image;
     }
 }
@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2024 Josef Friedrich and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.pirckheimer_gymnasium.tetris;
+
+import java.awt.Color;
+import java.lang.System.Logger;
+import java.lang.System.Logger.Level;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import de.pirckheimer_gymnasium.engine_pi.Resources;
+import de.pirckheimer_gymnasium.tetris.tetrominos.Tetromino;
+import de.pirckheimer_gymnasium.tetris.text.Glyph;
+
+/**
+ * Lädt beim Start alle Bilder und Klänge parallel im Hintergrund.
+ *
+ * <p>
+ * Die Bilder werden von {@link Image#get(String)},
+ * {@link Image#getIndexed(String)} und {@link Glyph#getImage(char, Color, int)}
+ * erst bei der ersten Verwendung geladen, eingefärbt und vergrößert. Ohne
+ * Vorladen würde das Spiel daher beim ersten Erscheinen eines Tetrominos oder
+ * beim ersten Schreiben eines Textes kurz stocken. Der Vorlader füllt die
+ * Zwischenspeicher, während die
+ * {@link de.pirckheimer_gymnasium.tetris.scenes.CopyrightScene} angezeigt wird,
+ * sodass während des Spiels nicht mehr auf die Festplatte zugegriffen werden
+ * muss.
+ * </p>
+ *
+ * <p>
+ * Da sich der Inhalt eines Ordners in einer JAR-Datei nicht zuverlässig
+ * auflisten lässt, sind die Dateinamen hier fest hinterlegt.
+ * </p>
+ *
+ * @author Josef Friedrich
+ */
+public class Preloader
+{
+    private static final Logger LOGGER = System
+            .getLogger(Preloader.class.getName());
+
+    /**
+     * Die Bilder im Ordner {@code blocks} ohne Dateierweiterung.
+     */
+    static final String[] BLOCKS = { "Debug-0", "Debug-1", "Debug-2", "Debug-3",
+            "I", "I_h_center", "I_h_left", "I_h_right", "I_v_bottom",
+            "I_v_center", "I_v_top", "J", "L", "O", "S", "T", "Z" };
+
+    /**
+     * Die Bilder im Ordner {@code fullscreen} ohne Dateierweiterung.
+     */
+    static final String[] FULLSCREEN = { "copyright", "game-over", "ingame",
+            "level-select", "main-menu", "title" };
+
+    /**
+     * Alle Buchstaben, für die es ein Bild im Ordner {@code glyphs} gibt.
+     */
+    static final String GLYPHS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ.,\"©";
+
+    /**
+     * Die Farben, in denen Buchstaben geschrieben werden.
+     */
+    static final Color[] GLYPH_COLORS = { Tetris.COLOR_SCHEME_GREEN.getBlack(),
+            Tetris.COLOR_SCHEME_GREEN.getDark() };
+
+    /**
+     * Die Klänge im Ordner {@code sounds}.
+     */
+    private static final String[] SOUNDS = { "4-row_clear.mp3",
+            "Block_drop.mp3", "Block_move.mp3", "Block_rotate.mp3",
+            "Korobeiniki.mp3", "Row_clear.mp3" };
+
+    /**
+     * Das Ergebnis des ersten Aufrufs von {@link #start()}.
+     */
+    private static CompletableFuture<Void> loading;
+
+    /**
+     * Startet das Vorladen aller Bilder und Klänge. Jede Datei wird als eigene
+     * Aufgabe im gemeinsamen Fork-Join-Pool geladen.
+     *
+     * <p>
+     * Wiederholte Aufrufe starten das Vorladen nicht erneut, sondern geben das
+     * Ergebnis des ersten Aufrufs zurück.
+     * </p>
+     *
+     * <p>
+     * Kann eine Datei nicht geladen werden, z. B. weil ein Dateiname falsch
+     * geschrieben ist, wird eine Warnung mit dem Dateinamen protokolliert. Die
+     * übrigen Dateien werden trotzdem geladen. Die fehlerhafte Datei wird erst
+     * bei ihrer Verwendung erneut geladen.
+     * </p>
+     *
+     * @return Ein Ergebnis, das abgeschlossen ist, sobald alle Dateien geladen
+     *         oder fehlgeschlagen sind. Es wird nie mit einer Ausnahme
+     *         abgeschlossen.
+     */
+    public static synchronized CompletableFuture<Void> start()
+    {
+        if (loading != null)
+        {
+            return loading;
+        }
+        List<CompletableFuture<Void>> tasks = new ArrayList<>();
+        // Das Blockgitter wird mit indizierten Farben gezeichnet.
+        for (String block : BLOCKS)
+        {
+            String pathname = "blocks/" + block + ".png";
+            tasks.add(load(pathname, () -> Image.getIndexed(pathname)));
+        }
+        // Nur das Vorschaubild besteht aus einzelnen eingefärbten Blöcken.
+        for (String name : Tetromino.names)
+        {
+            String pathname = "blocks/" + name + ".png";
+            tasks.add(load(pathname, () -> Image.get(pathname)));
+        }
+        for (String fullscreen : FULLSCREEN)
+        {
+            String pathname = "fullscreen/" + fullscreen + ".png";
+            tasks.add(load(pathname, () -> Image.get(pathname)));
+        }
+        for (Color color : GLYPH_COLORS)
+        {
+            for (char glyph : GLYPHS.toCharArray())
+            {
+                tasks.add(load(Glyph.getImagePath(glyph),
+                        () -> Glyph.getImage(glyph, color, Tetris.SCALE)));
+            }
+        }
+        for (String sound : SOUNDS)
+        {
+            String pathname = "sounds/" + sound;
+            tasks.add(load(pathname, () -> Resources.SOUNDS.get(pathname)));
+        }
+        loading = CompletableFuture
+                .allOf(tasks.toArray(CompletableFuture<?>[]::new));
+        return loading;
+    }
+
+    /**
+     * Führt eine Ladeaufgabe im Hintergrund aus. Schlägt sie fehl, wird eine
+     * Warnung protokolliert.
+     *
+     * @param pathname Der Pfad der Datei, der im Fehlerfall genannt wird.
+     * @param task     Die Ladeaufgabe.
+     */
+    private static CompletableFuture<Void> load(String pathname, Runnable task)
+    {
+        return CompletableFuture.runAsync(() -> {
+            try
+            {
+                task.run();
+            }
+            catch (Exception e)
+            {
+                LOGGER.log(Level.WARNING,
+                        "Die Datei konnte nicht vorgeladen werden: " + pathname,
+                        e);
+            }
+        });
+    }
+}
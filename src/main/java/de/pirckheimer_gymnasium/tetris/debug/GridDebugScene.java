@@ -17,6 +17,8 @@
 package de.pirckheimer_gymnasium.tetris.debug;
 
 import java.awt.event.KeyEvent;
+import java.util.ArrayDeque;
+import java.util.Deque;
 
 import de.pirckheimer_gymnasium.engine_pi.Game;
 import de.pirckheimer_gymnasium.engine_pi.Vector;
@@ -29,6 +31,7 @@ import de.pirckheimer_gymnasium.tetris.Tetris;
 import de.pirckheimer_gymnasium.tetris.scenes.BaseScene;
 import de.pirckheimer_gymnasium.tetris.tetrominos.FilledRowRange;
 import de.pirckheimer_gymnasium.tetris.tetrominos.Grid;
+import de.pirckheimer_gymnasium.tetris.tetrominos.GridSnapshot;
 import de.pirckheimer_gymnasium.tetris.tetrominos.Tetromino;
 
 /**
@@ -51,6 +54,8 @@ import de.pirckheimer_gymnasium.tetris.tetrominos.Tetromino;
  * {@code to = 3}) können getilgt werden.
  * <li>Taste {@code F4}: Keine Zeile ({@code range = null}) kann getilgt
  * werden.</li>
+ * <li>Taste {@code F5}: Die erste und die dritte Zeile ({@code from = 0} und
+ * {@code to = 2}, ohne die Zeile {@code 1}) können getilgt werden.</li>
  * </ul>
  *
  * <p>
@@ -67,6 +72,11 @@ import de.pirckheimer_gymnasium.tetris.tetrominos.Tetromino;
  * Durch einen Mausklick auf eine Zeile, kann diese eine Zeile getilgt werden.
  * </p>
  *
+ * <p>
+ * Taste {@code Rücktaste}: Macht die letzte Veränderung des Gitters rückgängig
+ * ({@link Grid#restore(GridSnapshot)}).
+ * </p>
+ *
  * @author Josef Friedrich
  */
 public class GridDebugScene extends BaseScene
@@ -78,19 +88,55 @@ public class GridDebugScene extends BaseScene
 
     private FilledRowRange range;
 
-    private final Rectangle RANGE_OVERLAY;
+    /**
+     * Je ein Rechteck für jede der höchstens vier ausgefüllten Zeilen. Da die
+     * ausgefüllten Zeilen nicht zusammenhängen müssen, wird jede Zeile einzeln
+     * markiert.
+     */
+    private final Rectangle[] RANGE_OVERLAYS = new Rectangle[4];
 
     private boolean showRangeOverlay = true;
 
+    /**
+     * Die Schnappschüsse vor jeder Veränderung des Gitters, der jüngste zuerst.
+     */
+    private final Deque<GridSnapshot> HISTORY = new ArrayDeque<>();
+
     public GridDebugScene()
     {
         super("ingame");
-        GRID = new Grid(Tetris.GRID_WIDTH, Tetris.HEIGHT + 1);
+        GRID = new Grid(this, Tetris.GRID_WIDTH, Tetris.HEIGHT + 1);
         ROW_OVERLAY = addOverlayRectangle("green");
-        RANGE_OVERLAY = addOverlayRectangle("blue");
+        for (int i = 0; i < RANGE_OVERLAYS.length; i++)
+        {
+            RANGE_OVERLAYS[i] = addOverlayRectangle("blue");
+        }
         fillGrid1();
     }
 
+    /**
+     * Sichert den aktuellen Zustand des Gitters, damit die folgende Veränderung
+     * rückgängig gemacht werden kann.
+     */
+    private void saveSnapshot()
+    {
+        HISTORY.push(GRID.snapshot());
+    }
+
+    /**
+     * Stellt den Zustand des Gitters vor der letzten Veränderung wieder her.
+     */
+    private void undo()
+    {
+        // Während der Animation des Tilgens wird nichts rückgängig gemacht.
+        if (HISTORY.isEmpty() || (range != null && !showRangeOverlay))
+        {
+            return;
+        }
+        GRID.restore(HISTORY.pop());
+        range = null;
+    }
+
     private Rectangle addOverlayRectangle(String color)
     {
         Rectangle rectangle = new Rectangle(10, 1);
@@ -245,6 +291,23 @@ public class GridDebugScene extends BaseScene
         I(1, 2, 7);
     }
 
+    /**
+     * Die erste und die dritte Zeile ({@code from = 0} und {@code to = 2})
+     * können getilgt werden, die zweite Zeile dazwischen nicht.
+     */
+    private void fillGrid5()
+    {
+        GRID.clear();
+        O(0, 0, 1);
+        O(0, 2, 1);
+        O(0, 4, 1);
+        O(0, 6, 1);
+        L(3, 8, 1);
+        I(0, 1, 2);
+        I(0, 5, 2);
+        I(1, 9, 3);
+    }
+
     @Override
     public void onKeyDown(KeyEvent keyEvent)
     {
@@ -252,10 +315,11 @@ public class GridDebugScene extends BaseScene
         {
         case KeyEvent.VK_ENTER ->
         {
-            RANGE_OVERLAY.setVisible(false);
+            hideRangeOverlays();
             range = GRID.getFilledRowRange();
             if (range != null)
             {
+                saveSnapshot();
                 // 1. grau
                 // 2. Zeile sichtbar
                 // 3. grau
@@ -264,10 +328,18 @@ public class GridDebugScene extends BaseScene
                 // 6. Zeile sichtbar
                 // 7. Zeile getilgt
                 // 8. Zeilen oberhalb nach unten gerutscht
-                Rectangle overlay = addRectangle(10, range.getRowCount(), 0,
-                        range.getFrom());
-                overlay.setColor(Tetris.COLOR_SCHEME_GREEN.getLight());
-                overlay.setVisible(false);
+                Rectangle[] overlays = new Rectangle[range.getRowCount()];
+                int i = 0;
+                for (int y = range.getFrom(); y <= range.getTo(); y++)
+                {
+                    if (range.contains(y))
+                    {
+                        Rectangle overlay = addRectangle(10, 1, 0, y);
+                        overlay.setColor(Tetris.COLOR_SCHEME_GREEN.getLight());
+                        overlay.setVisible(false);
+                        overlays[i++] = overlay;
+                    }
+                }
                 showRangeOverlay = false;
                 repeat(0.167, 8, (counter) -> {
                     System.out.println(counter);
@@ -277,14 +349,14 @@ public class GridDebugScene extends BaseScene
                     case 3:
                     case 5:
                         System.out.println("Zeige graue Überblendung");
-                        overlay.setVisible(true);
+                        setVisible(overlays, true);
                         break;
 
                     case 2:
                     case 4:
                     case 6:
                         System.out.println("Zeige zu tilgende Zeilen.");
-                        overlay.setVisible(false);
+                        setVisible(overlays, false);
                         break;
 
                     case 7:
@@ -297,15 +369,36 @@ public class GridDebugScene extends BaseScene
                     System.out.println(counter);
                     System.out.println("Löse Erdrutsch aus.");
                     GRID.triggerLandslide(range);
-                    remove(overlay);
+                    remove(overlays);
                     range = null;
                 });
             }
         }
-        case KeyEvent.VK_F1 -> fillGrid1();
-        case KeyEvent.VK_F2 -> fillGrid2();
-        case KeyEvent.VK_F3 -> fillGrid3();
-        case KeyEvent.VK_F4 -> fillGrid4();
+        case KeyEvent.VK_F1 ->
+        {
+            saveSnapshot();
+            fillGrid1();
+        }
+        case KeyEvent.VK_F2 ->
+        {
+            saveSnapshot();
+            fillGrid2();
+        }
+        case KeyEvent.VK_F3 ->
+        {
+            saveSnapshot();
+            fillGrid3();
+        }
+        case KeyEvent.VK_F4 ->
+        {
+            saveSnapshot();
+            fillGrid4();
+        }
+        case KeyEvent.VK_F5 ->
+        {
+            saveSnapshot();
+            fillGrid5();
+        }
         case KeyEvent.VK_1 ->
         {
             showRangeOverlay = true;
@@ -314,14 +407,17 @@ public class GridDebugScene extends BaseScene
         case KeyEvent.VK_2 ->
         {
             showRangeOverlay = true;
+            saveSnapshot();
             GRID.removeFilledRowRange(range);
         }
         case KeyEvent.VK_3 ->
         {
             showRangeOverlay = true;
+            saveSnapshot();
             GRID.triggerLandslide(range);
             range = null;
         }
+        case KeyEvent.VK_BACK_SPACE -> undo();
         }
     }
 
@@ -333,15 +429,31 @@ public class GridDebugScene extends BaseScene
         Vector position = Game.getMousePosition();
         ROW_OVERLAY.setY((int) position.getY());
         // Markiert die Zeilen, die getilgt werden können.
+        hideRangeOverlays();
         if (range != null && showRangeOverlay)
         {
-            RANGE_OVERLAY.setVisible(true);
-            RANGE_OVERLAY.setHeight(range.getRowCount());
-            RANGE_OVERLAY.setY(range.getFrom());
+            int i = 0;
+            for (int y = range.getFrom(); y <= range.getTo(); y++)
+            {
+                if (range.contains(y))
+                {
+                    RANGE_OVERLAYS[i].setY(y);
+                    RANGE_OVERLAYS[i++].setVisible(true);
+                }
+            }
         }
-        else
+    }
+
+    private void hideRangeOverlays()
+    {
+        setVisible(RANGE_OVERLAYS, false);
+    }
+
+    private void setVisible(Rectangle[] overlays, boolean visible)
+    {
+        for (Rectangle overlay : overlays)
         {
-            RANGE_OVERLAY.setVisible(false);
+            overlay.setVisible(visible);
         }
     }
 
@@ -352,6 +464,7 @@ public class GridDebugScene extends BaseScene
         // nicht - getilgt werden.
         if (button == MouseButton.LEFT)
         {
+            saveSnapshot();
             GRID.clearRow((int) position.getY());
         }
     }
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2024 Josef Friedrich and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.pirckheimer_gymnasium.tetris.logic;
+
+/**
+ * Eine Uhr, die die vergangene Zeit in ganze Einzelbilder (frames) der
+ * Simulation umrechnet.
+ *
+ * <p>
+ * Die Engine ruft ihre Szenen in unregelmäßigen Abständen auf, je nachdem wie
+ * ausgelastet der Rechner ist. Die Uhr sammelt die vergangene Zeit und gibt bei
+ * jedem Aufruf von {@link #advance(double)} zurück, wie viele Einzelbilder mit
+ * fester Dauer seitdem vollständig vergangen sind. Die Spiellogik rechnet nur
+ * in diesen ganzen Einzelbildern, z. B. mit
+ * {@link GameLogic#GB_FRAMES_PER_ROW}. Dadurch läuft die Simulation unabhängig
+ * von der Bildwiederholungsrate der Anzeige immer gleich ab.
+ * </p>
+ *
+ * @author Josef Friedrich
+ */
+public class FrameClock
+{
+    /**
+     * Die größte Anzahl an Einzelbildern, die bei normaler Geschwindigkeit in
+     * einem Aufruf nachgeholt werden. Stockt das Programm länger, z. B. weil
+     * das Fenster verschoben wird, so wird die übrige Zeit verworfen, statt das
+     * Spiel im Zeitraffer nachzuholen.
+     */
+    public static final int MAX_FRAMES_PER_ADVANCE = 30;
+
+    /**
+     * Die Anzahl an Einzelbildern pro Sekunde.
+     */
+    private final double frameRate;
+
+    /**
+     * Die gesammelte Zeit in Sekunden, bereits mit der Geschwindigkeit
+     * multipliziert.
+     */
+    private double time;
+
+    /**
+     * Die Anzahl der Einzelbilder, die bisher ausgegeben wurden.
+     */
+    private long frame;
+
+    /**
+     * Der Faktor, um den die Simulation schneller als die echte Zeit läuft.
+     */
+    private double speed = 1;
+
+    /**
+     * Erzeugt eine Uhr mit der Bildwiederholungsrate des originalen Gameboys.
+     */
+    public FrameClock()
+    {
+        this(GameLogic.GB_FRAME_RATE);
+    }
+
+    /**
+     * @param frameRate Die Anzahl an Einzelbildern pro Sekunde.
+     */
+    public FrameClock(double frameRate)
+    {
+        if (frameRate <= 0)
+        {
+            throw new RuntimeException(
+                    "Die Bildwiederholungsrate muss größer als 0 sein.");
+        }
+        this.frameRate = frameRate;
+    }
+
+    /**
+     * Lässt eine bestimmte Zeit vergehen.
+     *
+     * @param deltaSeconds Die seit dem letzten Aufruf vergangene echte Zeit in
+     *                     Sekunden.
+     *
+     * @return Die Anzahl der Einzelbilder, die in dieser Zeit vollständig
+     *         vergangen sind und simuliert werden müssen.
+     */
+    public int advance(double deltaSeconds)
+    {
+        time += deltaSeconds * speed;
+        long target = (long) (time * frameRate);
+        long due = target - frame;
+        long max = (long) Math.ceil(MAX_FRAMES_PER_ADVANCE * speed);
+        if (due > max)
+        {
+            // Die überzähligen ganzen Einzelbilder werden verworfen, der
+            // angebrochene Rest des nächsten Einzelbilds bleibt erhalten.
+            time -= (due - max) / frameRate;
+            due = max;
+        }
+        frame += due;
+        return (int) due;
+    }
+
+    /**
+     * Gibt die Anzahl der Einzelbilder zurück, die seit dem Start der Uhr
+     * ausgegeben wurden.
+     *
+     * @return Die Nummer des nächsten Einzelbilds.
+     */
+    public long getFrame()
+    {
+        return frame;
+    }
+
+    /**
+     * Gibt die Anzahl an Einzelbildern pro Sekunde zurück.
+     *
+     * @return Die Bildwiederholungsrate.
+     */
+    public double getFrameRate()
+    {
+        return frameRate;
+    }
+
+    /**
+     * Setzt den Faktor, um den die Simulation schneller als die echte Zeit
+     * läuft, z. B. {@code 4} für einen schnellen Vorlauf.
+     *
+     * @param speed Der Faktor, größer als {@code 0}.
+     */
+    public void setSpeed(double speed)
+    {
+        if (speed <= 0)
+        {
+            throw new RuntimeException(
+                    "Die Geschwindigkeit muss größer als 0 sein.");
+        }
+        this.speed = speed;
+    }
+
+    /**
+     * Gibt den Faktor zurück, um den die Simulation schneller als die echte
+     * Zeit läuft.
+     *
+     * @return Der Faktor, {@code 1} ist die normale Geschwindigkeit.
+     */
+    public double getSpeed()
+    {
+        return speed;
+    }
+}
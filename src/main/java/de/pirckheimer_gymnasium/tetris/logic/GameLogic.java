@@ -0,0 +1,617 @@
+/*
+ * Copyright (c) 2024 Josef Friedrich and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.pirckheimer_gymnasium.tetris.logic;
+
+import de.pirckheimer_gymnasium.engine_pi.Scene;
+import de.pirckheimer_gymnasium.tetris.Tetris;
+import de.pirckheimer_gymnasium.tetris.randomizer.Randomizer;
+import de.pirckheimer_gymnasium.tetris.randomizer.UniformRandomizer;
+import de.pirckheimer_gymnasium.tetris.tetrominos.FilledRowRange;
+import de.pirckheimer_gymnasium.tetris.tetrominos.Grid;
+import de.pirckheimer_gymnasium.tetris.tetrominos.SoftDrop;
+import de.pirckheimer_gymnasium.tetris.tetrominos.Tetromino;
+import de.pirckheimer_gymnasium.tetris.tetrominos.Zobrist;
+
+/**
+ * Die Spielregeln von Tetris: das Blockgitter, die Bewegung und Drehung des
+ * aktuellen Tetrominos, das Tilgen von Zeilen, die Punktezählung und die
+ * Fallgeschwindigkeit.
+ *
+ * <p>
+ * Die Spiellogik benötigt keine {@link Scene Szene}. Wird als Szene
+ * {@code null} übergeben, so werden keine Bilder erzeugt und es können sehr
+ * viele Spiele ohne Fenster simuliert werden, z. B. auf einem Server ohne
+ * Bildschirm. Die {@link de.pirckheimer_gymnasium.tetris.scenes.IngameScene}
+ * ruft nur noch die Methoden dieser Klasse auf und stellt den Spielstand dar.
+ * </p>
+ *
+ * @author Josef Friedrich
+ */
+public class GameLogic
+{
+    /**
+     * Ein Feld, das die Anzahl an Einzelbilder enthält, nach denen eine
+     * Tetromino eine Zeile weiter nach unten rutscht.
+     *
+     * <p>
+     * Die Zahl an der Index-Position {@code 0} gibt die Anzahl an Einzelbilder
+     * des {@code 0}-ten Levels an, die {@code 1} die Anzahl des {@code 1}-ten
+     * Level, etc.
+     * </p>
+     *
+     * <p>
+     * Quelle: <a href=
+     * "https://harddrop.com/wiki/Tetris_%28Game_Boy%29">harddrop.com</a>
+     * </p>
+     */
+    public static final int[] GB_FRAMES_PER_ROW = { 53, 49, 45, 41, 37, 33, 28,
+            22, 17, 11, 10, 9, 8, 7, 6, 6, 5, 5, 4, 4, 3 };
+
+    /**
+     * Die Bildwiederholungsrate des originalen Gameboys pro Sekunde.
+     *
+     * <p>
+     * Quelle: <a href=
+     * "https://harddrop.com/wiki/Tetris_%28Game_Boy%29">harddrop.com</a>
+     * </p>
+     */
+    public static final double GB_FRAME_RATE = 59.73;
+
+    /**
+     * Die Anzahl an Einzelbildern, nach denen ein Tetromino während eines
+     * Soft-Drops eine Zeile weiter nach unten rutscht.
+     */
+    public static final int SOFT_DROP_FRAMES_PER_ROW = 3;
+
+    /**
+     * Die x-Koordinate, an der neue Tetrominos erscheinen.
+     */
+    private static final int START_X = 4;
+
+    /**
+     * Die y-Koordinate, an der neue Tetrominos erscheinen.
+     */
+    private static final int START_Y = 16;
+
+    /**
+     * Die Szene, in der die Tetrominos angezeigt werden. Ist sie {@code null},
+     * wird das Spiel ohne Anzeige simuliert.
+     */
+    private Scene scene;
+
+    private Grid grid;
+
+    /**
+     * Der Zufallsgenerator dieses Spiels, der die Reihenfolge der Tetrominos
+     * bestimmt.
+     *
+     * @see #createNextTetromino()
+     */
+    private Randomizer randomizer;
+
+    /**
+     * Die Nummer des nächsten Tetrominos.
+     */
+    private int nextTetromino;
+
+    /**
+     * Das aktuelle Tetromino, das gesteuert werden kann und automatisch nach
+     * unten fällt.
+     */
+    private Tetromino tetromino;
+
+    /**
+     * Die Gesamtpunktezahl.
+     */
+    private int score;
+
+    /**
+     * In welchem Level wir uns gerade befinden. Das erste Level ist 0.
+     */
+    private int level;
+
+    /**
+     * Wie viele Zeilen bisher getilgt wurden.
+     */
+    private int clearedLines;
+
+    /**
+     * Gibt an, ob sich das Tetromino in einer Soft-Drop-Bewegung befindet. Als
+     * Soft-Drop bezeichnet man die schnellere nach unten gerichtete Bewegung
+     * des Tetromino.
+     */
+    private SoftDrop softDrop;
+
+    /**
+     * Die ausgefüllten Zeilen, die nach dem Aufsetzen des letzten Tetrominos
+     * getilgt werden müssen. Solange dieses Attribut gesetzt ist, kann kein
+     * Tetromino bewegt werden.
+     */
+    private FilledRowRange filledRowRange;
+
+    /**
+     * Wie viele Einzelbilder seit der letzten Abwärtsbewegung durch die
+     * Schwerkraft vergangen sind.
+     *
+     * @see #tick()
+     */
+    private int frameCounter;
+
+    /**
+     * Wird wahr, wenn ein neues Tetromino keinen Platz mehr im Blockgitter hat.
+     */
+    private boolean gameOver;
+
+    /**
+     * Ob beim Drehen Ausweichverschiebungen (wall kicks) ausprobiert werden.
+     * Das ursprüngliche Gameboy-Tetris kennt keine Ausweichverschiebungen.
+     */
+    private boolean wallKicks;
+
+    /**
+     * @param scene      Die Szene, in der die Tetrominos angezeigt werden
+     *                   sollen. Bei {@code null} wird das Spiel ohne Anzeige
+     *                   simuliert.
+     * @param randomizer Der Zufallsgenerator, mit dem die Tetrominos ausgewählt
+     *                   werden. Er sollte nur von diesem Spiel verwendet
+     *                   werden.
+     */
+    public GameLogic(Scene scene, Randomizer randomizer)
+    {
+        this.scene = scene;
+        this.randomizer = randomizer;
+        // Das I-Tetromino ragt einen Block über das sichtbare Spielfeld hinaus,
+        // wenn es in der Startposition gedreht wird, deshalb machen wir das
+        // Blockgitter um eine Zeile höher.
+        grid = new Grid(scene, Tetris.GRID_WIDTH, Tetris.HEIGHT + 1);
+        createNextTetromino();
+    }
+
+    /**
+     * Erzeugt eine Spiellogik ohne Anzeige.
+     */
+    public GameLogic()
+    {
+        this(null, new UniformRandomizer(Randomizer.createSeed()));
+    }
+
+    private void createNextTetromino()
+    {
+        // Beim ersten Mal müssen zwei zufällige Tetrominos erzeugt werden.
+        // Wir müssen also zweimal eine Zufallszahl generieren.
+        if (tetromino == null)
+        {
+            nextTetromino = randomizer.next();
+        }
+        // Das Tetromino wird zunächst ohne Blockgitter erzeugt, damit wir
+        // überprüfen können, ob es noch Platz hat.
+        tetromino = Tetromino.create(scene, null, nextTetromino, START_X,
+                START_Y);
+        nextTetromino = randomizer.next();
+        if (tetromino.overlaps(grid))
+        {
+            gameOver = true;
+            return;
+        }
+        tetromino.addGrid(grid);
+    }
+
+    /**
+     * Gibt das Blockgitter zurück.
+     *
+     * @return Das Blockgitter.
+     */
+    public Grid getGrid()
+    {
+        return grid;
+    }
+
+    /**
+     * Gibt den Zufallsgenerator dieses Spiels zurück.
+     *
+     * @return Der Zufallsgenerator.
+     */
+    public Randomizer getRandomizer()
+    {
+        return randomizer;
+    }
+
+    /**
+     * Gibt das aktuelle Tetromino zurück.
+     *
+     * @return Das Tetromino, das gesteuert werden kann.
+     */
+    public Tetromino getTetromino()
+    {
+        return tetromino;
+    }
+
+    /**
+     * Gibt die Nummer des nächsten Tetrominos zurück.
+     *
+     * @return Die Nummer des nächsten Tetrominos, 0 ist zum Beispiel das
+     *         L-Tetromino, 6 das T-Tetromino.
+     */
+    public int getNextTetromino()
+    {
+        return nextTetromino;
+    }
+
+    /**
+     * Gibt die Gesamtpunktezahl zurück.
+     *
+     * @return Die Gesamtpunktezahl.
+     */
+    public int getScore()
+    {
+        return score;
+    }
+
+    /**
+     * Gibt das aktuelle Level zurück.
+     *
+     * @return Das aktuelle Level. Das erste Level ist 0.
+     */
+    public int getLevel()
+    {
+        return level;
+    }
+
+    /**
+     * Gibt zurück, wie viele Zeilen bisher getilgt wurden.
+     *
+     * @return Die Anzahl der getilgten Zeilen.
+     */
+    public int getClearedLines()
+    {
+        return clearedLines;
+    }
+
+    /**
+     * Gibt die ausgefüllten Zeilen zurück, die noch getilgt werden müssen.
+     *
+     * @return Die ausgefüllten Zeilen oder {@code null}, wenn keine Zeilen
+     *         getilgt werden müssen.
+     */
+    public FilledRowRange getFilledRowRange()
+    {
+        return filledRowRange;
+    }
+
+    /**
+     * Gibt an, ob das Spiel beendet ist.
+     *
+     * @return Wahr, wenn ein neues Tetromino keinen Platz mehr hatte.
+     */
+    public boolean isGameOver()
+    {
+        return gameOver;
+    }
+
+    /**
+     * Gibt einen 64-Bit-Schlüssel des Spielstands zurück.
+     *
+     * <p>
+     * Der Schlüssel setzt sich aus den schrittweise nachgeführten
+     * Zobrist-Hashwerten des Blockgitters und des aktuellen Tetrominos sowie
+     * dem Schlüssel des nächsten Tetrominos zusammen. Er eignet sich z. B. zum
+     * Erkennen gleicher Spielstände bei einer Suche. Punktestand und Level
+     * fließen nicht ein.
+     * </p>
+     *
+     * @return Der Zobrist-Hashwert des Spielstands.
+     */
+    public long getHash()
+    {
+        long hash = grid.getHash() ^ Zobrist.key(Zobrist.NEXT, nextTetromino);
+        if (tetromino != null)
+        {
+            hash ^= tetromino.getHash();
+        }
+        return hash;
+    }
+
+    /**
+     * Gibt an, ob das Tetromino momentan nicht bewegt werden darf, weil noch
+     * Zeilen getilgt werden müssen oder das Spiel beendet ist.
+     */
+    private boolean isLocked()
+    {
+        return gameOver || filledRowRange != null;
+    }
+
+    /**
+     * Setzt drei verschiedene Zahlen, die den Spielstand angeben.
+     *
+     * https://tetris.wiki/Scoring
+     *
+     * @param lines Die Anzahl an getilgten Zeilen.
+     */
+    private void setScores(int lines)
+    {
+        int s = 40;
+        if (lines == 2)
+        {
+            s = 100;
+        }
+        else if (lines == 3)
+        {
+            s = 300;
+        }
+        else if (lines == 4)
+        {
+            s = 1200;
+        }
+        clearedLines += lines;
+        // Nach 10 getilgten Zeilen erhöht sich das Level.
+        level = clearedLines / 10;
+        int result = s * (level + 1);
+        assert result > 0;
+        score += result;
+    }
+
+    /**
+     * Gibt die Anzahl an Einzelbildern zurück, nach denen das Tetromino im
+     * aktuellen Level eine Zeile weiter nach unten rutscht.
+     *
+     * @return Die Anzahl an Einzelbildern pro Zeile.
+     */
+    public int getFramesPerRow()
+    {
+        return GB_FRAMES_PER_ROW[Math.min(level, GB_FRAMES_PER_ROW.length - 1)];
+    }
+
+    /**
+     * Bewegt das aktuelle Tetromino nach <b>links</b>.
+     *
+     * @return Wahr, wenn sich das Tetromino bewegen konnte, sonst falsch.
+     */
+    public boolean moveLeft()
+    {
+        if (isLocked())
+        {
+            return false;
+        }
+        return tetromino.moveLeft();
+    }
+
+    /**
+     * Bewegt das aktuelle Tetromino nach <b>rechts</b>.
+     *
+     * @return Wahr, wenn sich das Tetromino bewegen konnte, sonst falsch.
+     */
+    public boolean moveRight()
+    {
+        if (isLocked())
+        {
+            return false;
+        }
+        return tetromino.moveRight();
+    }
+
+    /**
+     * Dreht das aktuelle Tetromino.
+     *
+     * @return Wahr, wenn sich das Tetromino drehen konnte, sonst falsch.
+     */
+    public boolean rotate()
+    {
+        if (isLocked())
+        {
+            return false;
+        }
+        if (!tetromino.rotate(wallKicks))
+        {
+            return false;
+        }
+        if (softDrop != null)
+        {
+            softDrop.update();
+        }
+        return true;
+    }
+
+    /**
+     * Schaltet die Ausweichverschiebungen (wall kicks) beim Drehen ein oder
+     * aus.
+     *
+     * @param wallKicks Wahr, wenn ein blockiertes Tetromino beim Drehen
+     *                  ausweichen darf.
+     */
+    public void setWallKicks(boolean wallKicks)
+    {
+        this.wallKicks = wallKicks;
+    }
+
+    /**
+     * Gibt an, ob beim Drehen Ausweichverschiebungen ausprobiert werden.
+     *
+     * @return Wahr, wenn die Ausweichverschiebungen eingeschaltet sind.
+     */
+    public boolean hasWallKicks()
+    {
+        return wallKicks;
+    }
+
+    /**
+     * Beginnt eine Soft-Drop-Bewegung.
+     */
+    public void startSoftDrop()
+    {
+        if (isLocked())
+        {
+            return;
+        }
+        softDrop = new SoftDrop(tetromino);
+    }
+
+    /**
+     * Beendet eine Soft-Drop-Bewegung.
+     */
+    public void stopSoftDrop()
+    {
+        softDrop = null;
+    }
+
+    /**
+     * Gibt an, ob sich das Tetromino in einer Soft-Drop-Bewegung befindet.
+     *
+     * @return Wahr, wenn gerade ein Soft-Drop ausgeführt wird.
+     */
+    public boolean isSoftDropping()
+    {
+        return softDrop != null;
+    }
+
+    /**
+     * Bewegt das aktuelle Tetromino um eine Zeile nach unten.
+     *
+     * <p>
+     * Kann sich das Tetromino nicht mehr weiter nach unten bewegen, so setzt es
+     * auf. Die Punkte eines Soft-Drops werden gutgeschrieben und es wird
+     * überprüft, ob Zeilen ausgefüllt sind. Sind keine Zeilen zu tilgen, wird
+     * gleich das nächste Tetromino erzeugt, sonst erst in
+     * {@link #triggerLandslide()}.
+     * </p>
+     *
+     * @return Wahr, wenn sich das Tetromino bewegen konnte, falsch, wenn es
+     *         aufgesetzt hat oder nicht bewegt werden darf.
+     */
+    public boolean moveDown()
+    {
+        if (isLocked())
+        {
+            return false;
+        }
+        if (tetromino.moveDown())
+        {
+            return true;
+        }
+        if (softDrop != null)
+        {
+            score += softDrop.getDistance();
+            softDrop = null;
+        }
+        frameCounter = 0;
+        // Nur die Zeilen des aufgesetzten Tetrominos können voll geworden sein.
+        filledRowRange = grid.getAffectedFilledRowRange();
+        if (filledRowRange == null)
+        {
+            createNextTetromino();
+        }
+        return false;
+    }
+
+    /**
+     * Lässt das aktuelle Tetromino in einem Schritt bis zum Aufsetzen fallen
+     * (hard drop). Das Tetromino setzt danach sofort auf.
+     *
+     * <p>
+     * Das Gameboy-Tetris kennt keinen Hard Drop. Diese Methode ist für
+     * Simulationen gedacht, die viele Platzierungen schnell durchspielen.
+     * </p>
+     *
+     * @return Die Anzahl der Zeilen, um die das Tetromino gefallen ist, oder
+     *         {@code -1}, wenn das Tetromino nicht bewegt werden darf.
+     */
+    public int hardDrop()
+    {
+        if (isLocked())
+        {
+            return -1;
+        }
+        int distance = tetromino.drop();
+        moveDown();
+        return distance;
+    }
+
+    /**
+     * Entfernt die Blöcke der ausgefüllten Zeilen aus dem Blockgitter.
+     */
+    public void removeFilledRows()
+    {
+        grid.removeFilledRowRange(filledRowRange);
+    }
+
+    /**
+     * Lässt die Blöcke oberhalb der getilgten Zeilen nach unten rutschen,
+     * aktualisiert den Spielstand und erzeugt das nächste Tetromino.
+     */
+    public void triggerLandslide()
+    {
+        if (filledRowRange == null)
+        {
+            return;
+        }
+        grid.triggerLandslide(filledRowRange);
+        setScores(filledRowRange.getRowCount());
+        filledRowRange = null;
+        createNextTetromino();
+    }
+
+    /**
+     * Tilgt die ausgefüllten Zeilen ohne Animation.
+     */
+    public void clearFilledRows()
+    {
+        removeFilledRows();
+        triggerLandslide();
+    }
+
+    /**
+     * Führt ein Einzelbild der Simulation aus.
+     *
+     * <p>
+     * Das Tetromino rutscht nach {@link #getFramesPerRow()} Einzelbildern eine
+     * Zeile nach unten, während eines Soft-Drops bereits nach
+     * {@link #SOFT_DROP_FRAMES_PER_ROW} Einzelbildern. Die Einzelbilder werden
+     * z. B. von einer {@link FrameClock} vorgegeben.
+     * </p>
+     *
+     * <p>
+     * Sind noch ausgefüllte Zeilen zu tilgen, werden sie sofort ohne Animation
+     * getilgt. Eine Szene, die die Tilgung animiert, ruft diese Methode während
+     * der Animation nicht auf.
+     * </p>
+     *
+     * @return Wahr, wenn das Tetromino in diesem Einzelbild aufgesetzt hat.
+     */
+    public boolean tick()
+    {
+        if (gameOver)
+        {
+            return false;
+        }
+        if (filledRowRange != null)
+        {
+            clearFilledRows();
+            return false;
+        }
+        frameCounter++;
+        int framesPerRow = getFramesPerRow();
+        if (softDrop != null)
+        {
+            framesPerRow = Math.min(framesPerRow, SOFT_DROP_FRAMES_PER_ROW);
+        }
+        if (frameCounter < framesPerRow)
+        {
+            return false;
+        }
+        frameCounter = 0;
+        return !moveDown();
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2024 Josef Friedrich and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.pirckheimer_gymnasium.tetris.randomizer;
+
+/**
+ * Legt alle sieben Tetrominos in einen Beutel, mischt ihn und zieht die
+ * Tetrominos nacheinander heraus. Ist der Beutel leer, wird er neu gefüllt.
+ *
+ * <p>
+ * Der Beutel ist ein Feld aus sieben Zahlen, das nach Fisher-Yates an Ort und
+ * Stelle gemischt wird. Beim Ziehen wird daher kein Speicher reserviert.
+ * </p>
+ *
+ * @author Josef Friedrich
+ */
+public class BagRandomizer implements Randomizer
+{
+    /**
+     * Der Name des Generators für {@link Randomizer#create(String, long)}.
+     */
+    public static final String NAME = "bag";
+
+    private final SplitMix64 random;
+
+    private final int[] bag = { 0, 1, 2, 3, 4, 5, 6 };
+
+    /**
+     * Die Position des nächsten Tetrominos im Beutel. Ist sie {@code 7}, ist
+     * der Beutel leer.
+     */
+    private int position = 7;
+
+    /**
+     * @param seed Der Startwert.
+     */
+    public BagRandomizer(long seed)
+    {
+        random = new SplitMix64(seed);
+    }
+
+    private void shuffle()
+    {
+        for (int i = bag.length - 1; i > 0; i--)
+        {
+            int j = random.nextInt(i + 1);
+            int swap = bag[i];
+            bag[i] = bag[j];
+            bag[j] = swap;
+        }
+        position = 0;
+    }
+
+    @Override
+    public int next()
+    {
+        if (position == bag.length)
+        {
+            shuffle();
+        }
+        return bag[position++];
+    }
+
+    @Override
+    public String getName()
+    {
+        return NAME;
+    }
+
+    /**
+     * Der Beutel wird mit drei Bit pro Tetromino in eine Zahl gepackt.
+     */
+    @Override
+    public long[] getState()
+    {
+        long packed = 0;
+        for (int i = 0; i < bag.length; i++)
+        {
+            packed |= (long) bag[i] << (3 * i);
+        }
+        return new long[] { random.getState(), packed, position };
+    }
+
+    @Override
+    public void setState(long[] state)
+    {
+        if (state.length != 3 || state[2] < 0 || state[2] > bag.length)
+        {
+            throw new RuntimeException(
+                    "Der Zustand passt nicht zu diesem Zufallsgenerator.");
+        }
+        random.setState(state[0]);
+        for (int i = 0; i < bag.length; i++)
+        {
+            bag[i] = (int) (state[1] >>> (3 * i)) & 7;
+        }
+        position = (int) state[2];
+    }
+}
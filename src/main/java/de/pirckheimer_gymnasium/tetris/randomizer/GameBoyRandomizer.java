@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2024 Josef Friedrich and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.pirckheimer_gymnasium.tetris.randomizer;
+
+/**
+ * Bildet den Zufallsgenerator des Game-Boy-Tetris bitgenau nach.
+ *
+ * <p>
+ * Das Original (Unterprogramm {@code func_2007} in
+ * {@code misc/disassembly/main.asm}) liest das Teilerregister {@code rDIV} und
+ * zählt es in einer Schleife modulo sieben herunter. Ergibt die bitweise
+ * Oder-Verknüpfung aus dem gewürfelten, dem vorherigen und dem vorvorherigen
+ * Tetromino wieder das vorvorherige Tetromino, wird bis zu zweimal neu
+ * gewürfelt. Der dritte Wurf wird immer angenommen. Wegen der Oder-Verknüpfung
+ * sind die Tetrominos daher nicht gleichverteilt.
+ * </p>
+ *
+ * <p>
+ * Das Teilerregister ist das obere Byte eines 16-Bit-Zählers, der mit jedem
+ * Taktzyklus der CPU um eins erhöht wird. Da der Zeitpunkt, an dem ein neues
+ * Tetromino benötigt wird, von der Spielerin abhängt, wird der Zähler beim
+ * ersten Wurf gleichverteilt gewählt. Bei einem erneuten Wurf wird er um genau
+ * die Anzahl an Taktzyklen weitergezählt, die die Befehle der Schleife
+ * benötigen. Unterbrechungen (Interrupts) während der Schleife werden nicht
+ * berücksichtigt.
+ * </p>
+ *
+ * <p>
+ * Zu Beginn eines Spiels ruft das Original das Unterprogramm dreimal auf. Die
+ * beiden Speicherzellen für die vorherigen Tetrominos werden dabei als
+ * {@code 0} (L-Tetromino) angenommen.
+ * </p>
+ *
+ * @author Josef Friedrich
+ */
+public class GameBoyRandomizer implements Randomizer
+{
+    /**
+     * Der Name des Generators für {@link Randomizer#create(String, long)}.
+     */
+    public static final String NAME = "gameboy";
+
+    /**
+     * Die Anzahl an Würfen, nach der das Ergebnis immer angenommen wird
+     * (Register {@code h}).
+     */
+    private static final int MAX_ROLLS = 3;
+
+    private final SplitMix64 random;
+
+    /**
+     * Das vorvorherige Tetromino als Byte, wie es das Original speichert (ein
+     * Vielfaches von vier, {@code rNEXT_BLOCK_TYPE}).
+     */
+    private int beforePrevious;
+
+    /**
+     * Das vorherige Tetromino als Byte ({@code $FFAE}).
+     */
+    private int previous;
+
+    /**
+     * @param seed Der Startwert.
+     */
+    public GameBoyRandomizer(long seed)
+    {
+        random = new SplitMix64(seed);
+    }
+
+    /**
+     * Berechnet die Anzahl an Taktzyklen zwischen zwei Lesezugriffen auf das
+     * Teilerregister, wenn neu gewürfelt wird.
+     *
+     * <p>
+     * Nach dem Lesen vergehen acht Zyklen bis zur Schleife ({@code ld b, a} und
+     * {@code xor a}). Jeder Durchlauf dauert 56 Zyklen, jeder siebte nur 52,
+     * weil der Sprung zum Zurücksetzen auf {@code 0} kürzer ist. Der letzte
+     * Durchlauf benötigt 16 Zyklen, der Vergleich bis zum Rücksprung 64 und das
+     * nächste {@code ldh a, [rDIV]} selbst 12. Zusammen sind das
+     * {@code 8 + 16 + 64 + 12 = 100} Zyklen zuzüglich der Durchläufe.
+     * </p>
+     *
+     * @param iterations Die Anzahl an Schleifendurchläufen, die nicht zum Ende
+     *                   geführt haben.
+     *
+     * @return Die Anzahl an Taktzyklen.
+     */
+    static int getRerollCycles(int iterations)
+    {
+        return 100 + 56 * iterations - 4 * (iterations / 7);
+    }
+
+    /**
+     * Würfelt ein Tetromino wie das Original aus einem bekannten Stand des
+     * Teilerzählers.
+     *
+     * @param counter        Der 16-Bit-Teilerzähler beim ersten Lesen.
+     * @param beforePrevious Das vorvorherige Tetromino als Byte.
+     * @param previous       Das vorherige Tetromino als Byte.
+     *
+     * @return Das gewürfelte Tetromino als Byte, also die Nummer mal vier.
+     */
+    static int roll(int counter, int beforePrevious, int previous)
+    {
+        int current = beforePrevious & 0xFC;
+        int candidate;
+        int attempt = 1;
+        while (true)
+        {
+            int div = counter >>> 8;
+            // dec b erreicht erst nach 256 Durchläufen 0, wenn b = 0 ist.
+            int iterations = (div == 0 ? 256 : div) - 1;
+            candidate = iterations % 7 * 4;
+            if (attempt == MAX_ROLLS
+                    || ((previous | candidate | current) & 0xFC) != current)
+            {
+                break;
+            }
+            counter = (counter + getRerollCycles(iterations)) & 0xFFFF;
+            attempt++;
+        }
+        return candidate;
+    }
+
+    @Override
+    public int next()
+    {
+        int candidate = roll(random.nextInt(0x10000), beforePrevious, previous);
+        beforePrevious = previous;
+        previous = candidate;
+        return candidate >>> 2;
+    }
+
+    /**
+     * Berechnet die Wahrscheinlichkeiten aller Paare aufeinanderfolgender
+     * Tetrominos nach vielen Ziehungen.
+     *
+     * <p>
+     * Für jedes Paar der beiden vorherigen Tetrominos werden alle 65536 Stände
+     * des Teilerzählers durchgespielt. Das ergibt die exakten
+     * Übergangswahrscheinlichkeiten. Ausgehend vom Anfangszustand wird die
+     * Verteilung so oft weitergerechnet, bis sie sich nicht mehr ändert.
+     * </p>
+     *
+     * @return Die Wahrscheinlichkeiten {@code [vorheriges][nächstes]}, deren
+     *         Summe {@code 1} ist.
+     */
+    public static double[][] getPairProbabilities()
+    {
+        double[][][] transitions = new double[7][7][7];
+        for (int b = 0; b < 7; b++)
+        {
+            for (int p = 0; p < 7; p++)
+            {
+                for (int counter = 0; counter < 0x10000; counter++)
+                {
+                    transitions[b][p][roll(counter, b * 4, p * 4) >>> 2]++;
+                }
+                for (int n = 0; n < 7; n++)
+                {
+                    transitions[b][p][n] /= 0x10000;
+                }
+            }
+        }
+        // Die Verteilung der beiden vorherigen Tetrominos.
+        double[][] state = new double[7][7];
+        state[0][0] = 1;
+        double[][] pairs = new double[7][7];
+        for (int step = 0; step < 10000; step++)
+        {
+            double change = 0;
+            for (int p = 0; p < 7; p++)
+            {
+                for (int n = 0; n < 7; n++)
+                {
+                    double sum = 0;
+                    for (int b = 0; b < 7; b++)
+                    {
+                        sum += state[b][p] * transitions[b][p][n];
+                    }
+                    change += Math.abs(sum - pairs[p][n]);
+                    pairs[p][n] = sum;
+                }
+            }
+            for (int p = 0; p < 7; p++)
+            {
+                state[p] = pairs[p].clone();
+            }
+            if (change < 1e-15)
+            {
+                break;
+            }
+        }
+        return pairs;
+    }
+
+    @Override
+    public String getName()
+    {
+        return NAME;
+    }
+
+    @Override
+    public long[] getState()
+    {
+        return new long[] { random.getState(), beforePrevious, previous };
+    }
+
+    @Override
+    public void setState(long[] state)
+    {
+        if (state.length != 3)
+        {
+            throw new RuntimeException(
+                    "Der Zustand passt nicht zu diesem Zufallsgenerator.");
+        }
+        random.setState(state[0]);
+        beforePrevious = (int) state[1] & 0xFF;
+        previous = (int) state[2] & 0xFF;
+    }
+}
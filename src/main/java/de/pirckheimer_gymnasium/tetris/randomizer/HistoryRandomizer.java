@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2024 Josef Friedrich and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.pirckheimer_gymnasium.tetris.randomizer;
+
+import java.util.Arrays;
+
+/**
+ * Merkt sich die zuletzt gezogenen Tetrominos und würfelt neu, wenn das
+ * gewürfelte Tetromino darunter ist.
+ *
+ * <p>
+ * Nach der festgelegten Anzahl an Würfen wird das Ergebnis immer angenommen.
+ * Die Voreinstellung (vier gemerkte Tetrominos, vier Würfe) entspricht dem
+ * Verfahren von Tetris: The Grand Master. Wie dort ist der Verlauf zu Beginn
+ * mit Z-Tetrominos gefüllt und das erste Tetromino ist nie ein O-, Z- oder
+ * S-Tetromino.
+ * </p>
+ *
+ * <p>
+ * Der Verlauf ist ein Ringpuffer aus einem Feld von Zahlen. Beim Ziehen wird
+ * daher kein Speicher reserviert.
+ * </p>
+ *
+ * @author Josef Friedrich
+ */
+public class HistoryRandomizer implements Randomizer
+{
+    /**
+     * Der Name des Generators für {@link Randomizer#create(String, long)}.
+     */
+    public static final String NAME = "history";
+
+    /**
+     * Die Nummern des O-, Z- und S-Tetrominos, die nicht als erstes gezogen
+     * werden.
+     */
+    private static final int O = 3, Z = 4, S = 5;
+
+    private final SplitMix64 random;
+
+    /**
+     * Die zuletzt gezogenen Tetrominos als Ringpuffer.
+     */
+    private final int[] history;
+
+    /**
+     * Die Anzahl an Würfen, nach der das Ergebnis immer angenommen wird.
+     */
+    private final int rolls;
+
+    /**
+     * Die Position im Ringpuffer, an der das nächste Tetromino gespeichert
+     * wird.
+     */
+    private int head = 0;
+
+    /**
+     * Ob noch kein Tetromino gezogen wurde.
+     */
+    private boolean first = true;
+
+    /**
+     * @param seed Der Startwert.
+     */
+    public HistoryRandomizer(long seed)
+    {
+        this(seed, 4, 4);
+    }
+
+    /**
+     * @param seed        Der Startwert.
+     * @param historySize Die Anzahl an gemerkten Tetrominos.
+     * @param rolls       Die Anzahl an Würfen, mindestens {@code 1}.
+     */
+    public HistoryRandomizer(long seed, int historySize, int rolls)
+    {
+        if (historySize < 1 || rolls < 1)
+        {
+            throw new RuntimeException(
+                    "Der Verlauf und die Anzahl an Würfen müssen größer als 0 sein.");
+        }
+        random = new SplitMix64(seed);
+        history = new int[historySize];
+        Arrays.fill(history, Z);
+        this.rolls = rolls;
+    }
+
+    private boolean contains(int piece)
+    {
+        for (int i = 0; i < history.length; i++)
+        {
+            if (history[i] == piece)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int next()
+    {
+        int piece;
+        if (first)
+        {
+            first = false;
+            do
+            {
+                piece = random.nextInt(7);
+            }
+            while (piece == O || piece == Z || piece == S);
+        }
+        else
+        {
+            piece = random.nextInt(7);
+            for (int roll = 1; roll < rolls && contains(piece); roll++)
+            {
+                piece = random.nextInt(7);
+            }
+        }
+        history[head] = piece;
+        head = (head + 1) % history.length;
+        return piece;
+    }
+
+    @Override
+    public String getName()
+    {
+        return NAME;
+    }
+
+    /**
+     * Der Zustand besteht aus dem Zufallszahlengenerator, der Angabe, ob noch
+     * kein Tetromino gezogen wurde, der Position im Ringpuffer und dem Verlauf.
+     */
+    @Override
+    public long[] getState()
+    {
+        long[] state = new long[3 + history.length];
+        state[0] = random.getState();
+        state[1] = first ? 1 : 0;
+        state[2] = head;
+        for (int i = 0; i < history.length; i++)
+        {
+            state[3 + i] = history[i];
+        }
+        return state;
+    }
+
+    @Override
+    public void setState(long[] state)
+    {
+        if (state.length != 3 + history.length || state[2] < 0
+                || state[2] >= history.length)
+        {
+            throw new RuntimeException(
+                    "Der Zustand passt nicht zu diesem Zufallsgenerator.");
+        }
+        random.setState(state[0]);
+        first = state[1] != 0;
+        head = (int) state[2];
+        for (int i = 0; i < history.length; i++)
+        {
+            history[i] = (int) state[3 + i];
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2024 Josef Friedrich and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.pirckheimer_gymnasium.tetris.randomizer;
+
+/**
+ * Ein Zufallsgenerator, der die Reihenfolge der Tetrominos bestimmt.
+ *
+ * <p>
+ * Jedes Spiel besitzt einen eigenen Generator. Da die Generatoren nicht
+ * synchronisiert sind, können viele Spiele gleichzeitig in verschiedenen
+ * Threads simuliert werden, ohne sich gegenseitig zu blockieren.
+ * </p>
+ *
+ * <p>
+ * Der Zustand eines Generators kann mit {@link #getState()} ausgelesen und mit
+ * {@link #setState(long[])} wiederhergestellt werden. Wird der Zustand vor dem
+ * ersten Aufruf von {@link #next()} gesichert, lässt sich ein Spiel damit exakt
+ * wiederholen.
+ * </p>
+ *
+ * @author Josef Friedrich
+ */
+public interface Randomizer
+{
+    /**
+     * Gibt die Nummer des nächsten Tetrominos zurück.
+     *
+     * @return Eine Zahl von {@code 0} bis einschließlich {@code 6} in der
+     *         Reihenfolge von
+     *         {@link de.pirckheimer_gymnasium.tetris.tetrominos.Tetromino#names},
+     *         also {@code 0} für das L- und {@code 6} für das T-Tetromino.
+     */
+    int next();
+
+    /**
+     * Gibt den Namen des Generators zurück, mit dem er über
+     * {@link #create(String, long)} erzeugt werden kann.
+     *
+     * @return Der Name des Generators, z. B. {@code "uniform"}.
+     */
+    String getName();
+
+    /**
+     * Gibt eine Kopie des aktuellen Zustands zurück.
+     *
+     * @return Der Zustand als Feld von Zahlen.
+     */
+    long[] getState();
+
+    /**
+     * Stellt einen zuvor mit {@link #getState()} ausgelesenen Zustand wieder
+     * her.
+     *
+     * @param state Der Zustand eines Generators derselben Art.
+     */
+    void setState(long[] state);
+
+    /**
+     * Erzeugt einen Zufallsgenerator anhand seines Namens.
+     *
+     * @param name Der Name des Generators, z. B. {@code "uniform"},
+     *             {@code "gameboy"}, {@code "bag"} oder {@code "history"}.
+     * @param seed Der Startwert.
+     *
+     * @return Ein neuer Zufallsgenerator.
+     */
+    static Randomizer create(String name, long seed)
+    {
+        switch (name)
+        {
+        case UniformRandomizer.NAME:
+            return new UniformRandomizer(seed);
+
+        case GameBoyRandomizer.NAME:
+            return new GameBoyRandomizer(seed);
+
+        case BagRandomizer.NAME:
+            return new BagRandomizer(seed);
+
+        case HistoryRandomizer.NAME:
+            return new HistoryRandomizer(seed);
+
+        default:
+            throw new RuntimeException("Unbekannter Zufallsgenerator: " + name);
+        }
+    }
+
+    /**
+     * Erzeugt einen zufälligen Startwert für ein neues Spiel.
+     *
+     * @return Ein zufälliger Startwert.
+     */
+    static long createSeed()
+    {
+        return SplitMix64.mix(System.nanoTime());
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2024 Josef Friedrich and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.pirckheimer_gymnasium.tetris.randomizer;
+
+/**
+ * Ein schneller, nicht synchronisierter Pseudozufallszahlengenerator nach dem
+ * SplitMix64-Verfahren.
+ *
+ * <p>
+ * Der ganze Zustand besteht aus einer einzigen {@code long}-Zahl. Er lässt sich
+ * daher einfach sichern und wiederherstellen.
+ * </p>
+ *
+ * @author Josef Friedrich
+ */
+final class SplitMix64
+{
+    /**
+     * Der Abstand zwischen zwei aufeinanderfolgenden Zuständen (goldener
+     * Schnitt).
+     */
+    private static final long GAMMA = 0x9E3779B97F4A7C15L;
+
+    /**
+     * Der aktuelle Zustand.
+     */
+    private long state;
+
+    /**
+     * @param seed Der Startwert.
+     */
+    SplitMix64(long seed)
+    {
+        state = seed;
+    }
+
+    /**
+     * Verrührt die Bits einer Zahl (finalizer von SplitMix64).
+     */
+    static long mix(long z)
+    {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Gibt die nächste Zufallszahl zurück.
+     *
+     * @return Eine gleichverteilte 64-Bit-Zahl.
+     */
+    long nextLong()
+    {
+        state += GAMMA;
+        return mix(state);
+    }
+
+    /**
+     * Gibt eine gleichverteilte Zufallszahl von {@code 0} (einschließlich) bis
+     * {@code bound} (ausschließlich) zurück.
+     *
+     * <p>
+     * Statt einer Division wird eine Multiplikation verwendet (Verfahren nach
+     * Lemire). Die seltenen Werte, die zu einer ungleichmäßigen Verteilung
+     * führen würden, werden verworfen.
+     * </p>
+     *
+     * @param bound Die obere Schranke, größer als {@code 0}.
+     *
+     * @return Eine Zufallszahl kleiner als {@code bound}.
+     */
+    int nextInt(int bound)
+    {
+        long product = (nextLong() >>> 32) * bound;
+        long low = product & 0xFFFFFFFFL;
+        if (low < bound)
+        {
+            long threshold = (0x100000000L - bound) % bound;
+            while (low < threshold)
+            {
+                product = (nextLong() >>> 32) * bound;
+                low = product & 0xFFFFFFFFL;
+            }
+        }
+        return (int) (product >>> 32);
+    }
+
+    long getState()
+    {
+        return state;
+    }
+
+    void setState(long state)
+    {
+        this.state = state;
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2024 Josef Friedrich and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.pirckheimer_gymnasium.tetris.randomizer;
+
+/**
+ * Wählt jedes Tetromino unabhängig von den vorherigen mit gleicher
+ * Wahrscheinlichkeit aus.
+ *
+ * @author Josef Friedrich
+ */
+public class UniformRandomizer implements Randomizer
+{
+    /**
+     * Der Name des Generators für {@link Randomizer#create(String, long)}.
+     */
+    public static final String NAME = "uniform";
+
+    private final SplitMix64 random;
+
+    /**
+     * @param seed Der Startwert.
+     */
+    public UniformRandomizer(long seed)
+    {
+        random = new SplitMix64(seed);
+    }
+
+    @Override
+    public int next()
+    {
+        return random.nextInt(7);
+    }
+
+    @Override
+    public String getName()
+    {
+        return NAME;
+    }
+
+    @Override
+    public long[] getState()
+    {
+        return new long[] { random.getState() };
+    }
+
+    @Override
+    public void setState(long[] state)
+    {
+        if (state.length != 1)
+        {
+            throw new RuntimeException(
+                    "Der Zustand passt nicht zu diesem Zufallsgenerator.");
+        }
+        random.setState(state[0]);
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2024 Josef Friedrich and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.pirckheimer_gymnasium.tetris.replay;
+
+import de.pirckheimer_gymnasium.tetris.logic.GameLogic;
+
+/**
+ * Die Eingaben, die in einer {@link Replay Aufzeichnung} gespeichert werden.
+ *
+ * <p>
+ * Die Ordnungszahl einer Eingabe wird in den unteren drei Bit eines Eintrags
+ * der Aufzeichnung gespeichert. Die Werte 6 und 7 kennzeichnen eine
+ * Wiederholung und das Ende, weitere Eingaben erfordern daher ein neues
+ * Binärformat.
+ * </p>
+ *
+ * @author Josef Friedrich
+ */
+public enum Input
+{
+    /**
+     * Das Tetromino wurde nach links bewegt.
+     */
+    LEFT,
+    /**
+     * Das Tetromino wurde nach rechts bewegt.
+     */
+    RIGHT,
+    /**
+     * Das Tetromino wurde gedreht.
+     */
+    ROTATE,
+    /**
+     * Die Pfeiltaste nach unten wurde gedrückt, ein Soft-Drop beginnt.
+     */
+    DOWN_PRESS,
+    /**
+     * Die Pfeiltaste nach unten wurde losgelassen, der Soft-Drop endet.
+     */
+    DOWN_RELEASE,
+    /**
+     * Die Ausweichverschiebungen (wall kicks) wurden ein- oder ausgeschaltet.
+     */
+    WALL_KICKS;
+
+    private static final Input[] VALUES = values();
+
+    /**
+     * Gibt die Eingabe mit der angegebenen Ordnungszahl zurück, ohne ein neues
+     * Feld zu erzeugen.
+     *
+     * @param ordinal Die Ordnungszahl.
+     *
+     * @return Die Eingabe.
+     */
+    static Input get(int ordinal)
+    {
+        if (ordinal < 0 || ordinal >= VALUES.length)
+        {
+            throw new RuntimeException("Unbekannte Eingabe: " + ordinal);
+        }
+        return VALUES[ordinal];
+    }
+
+    /**
+     * Führt die Eingabe in einer Spiellogik aus.
+     *
+     * @param logic Die Spiellogik.
+     */
+    public void apply(GameLogic logic)
+    {
+        switch (this)
+        {
+        case LEFT -> logic.moveLeft();
+        case RIGHT -> logic.moveRight();
+        case ROTATE -> logic.rotate();
+        case DOWN_PRESS -> logic.startSoftDrop();
+        case DOWN_RELEASE -> logic.stopSoftDrop();
+        case WALL_KICKS -> logic.setWallKicks(!logic.hasWallKicks());
+        }
+    }
+}
@@ -0,0 +1,452 @@
+/*
+ * Copyright (c) 2024 Josef Friedrich and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.pirckheimer_gymnasium.tetris.replay;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import de.pirckheimer_gymnasium.tetris.logic.GameLogic;
+import de.pirckheimer_gymnasium.tetris.randomizer.Randomizer;
+
+/**
+ * Die Aufzeichnung eines Spiels.
+ *
+ * <p>
+ * Da die Spiellogik deterministisch ist, genügen der Name und der
+ * Anfangszustand des Zufallsgenerators sowie die Eingaben, um ein Spiel exakt
+ * zu wiederholen. Jede Eingabe ist mit der Anzahl der Einzelbilder versehen,
+ * die die Spiellogik vor der Eingabe bereits mit {@link GameLogic#tick()}
+ * ausgeführt hat. Die Einzelbilder der Animation beim Tilgen von Zeilen zählen
+ * dabei nicht mit, sodass eine Aufzeichnung auch ohne Szene abgespielt werden
+ * kann.
+ * </p>
+ *
+ * <p>
+ * Binärformat:
+ * </p>
+ *
+ * <ul>
+ * <li>die vier Bytes {@code TLR2},</li>
+ * <li>die Länge des Generatornamens als Varint und der Name in UTF-8,</li>
+ * <li>die Anzahl der Zustandszahlen als Varint und die Zahlen als
+ * ZigZag-Varint,</li>
+ * <li>je Eingabe ein Varint {@code (abstand << 3) | eingabe}, wobei der Abstand
+ * die Anzahl der Einzelbilder seit der vorherigen Eingabe ist,</li>
+ * <li>anstelle mehrerer gleicher Eingaben mit gleichem Abstand ein Varint
+ * {@code (anzahl << 3) | 6}, das die vorherige Eingabe so oft mit demselben
+ * Abstand wiederholt,</li>
+ * <li>zum Schluss ein Varint {@code (abstand << 3) | 7}, das das Ende des
+ * Spiels markiert.</li>
+ * </ul>
+ *
+ * <p>
+ * Ein Varint speichert sieben Bit pro Byte, das höchste Bit zeigt an, dass ein
+ * weiteres Byte folgt. Die meisten Eingaben belegen daher nur ein Byte. Eine
+ * gedrückt gehaltene Pfeiltaste belegt dank der Wiederholung unabhängig von
+ * ihrer Dauer nur wenige Bytes. Die ZigZag-Kodierung bildet negative Zahlen auf
+ * kleine positive Zahlen ab. Aufgezeichnet werden nur Eingaben, die den
+ * Spielstand verändert haben, z. B. keine Bewegung gegen eine Wand.
+ * </p>
+ *
+ * @author Josef Friedrich
+ */
+public class Replay
+{
+    private static final byte[] MAGIC = { 'T', 'L', 'R', '2' };
+
+    /**
+     * Die Kennung des Endes in den unteren drei Bit eines Eintrags.
+     */
+    static final int END = 7;
+
+    /**
+     * Die Kennung einer Wiederholung der vorherigen Eingabe in den unteren drei
+     * Bit eines Eintrags.
+     */
+    static final int REPEAT = 6;
+
+    private final String randomizerName;
+
+    private final long[] initialState;
+
+    /**
+     * Die kodierten Eingaben.
+     */
+    private byte[] events = new byte[64];
+
+    /**
+     * Die Anzahl der belegten Bytes in {@link #events}.
+     */
+    private int length;
+
+    /**
+     * Das Einzelbild der zuletzt aufgezeichneten Eingabe.
+     */
+    private long lastFrame;
+
+    /**
+     * Das Einzelbild, in dem das Spiel endete, oder {@code -1}, solange noch
+     * aufgezeichnet wird.
+     */
+    private long endFrame = -1;
+
+    /**
+     * Die Kennung der zuletzt aufgezeichneten Eingabe oder {@code -1}.
+     */
+    private int lastCode = -1;
+
+    /**
+     * Der Abstand der zuletzt aufgezeichneten Eingabe zu ihrer Vorgängerin.
+     */
+    private long lastDelta;
+
+    /**
+     * Die Position der Wiederholung am Ende von {@link #events} oder
+     * {@code -1}, wenn der letzte Eintrag keine Wiederholung ist.
+     */
+    private int repeatPosition = -1;
+
+    /**
+     * Wie oft die Wiederholung am Ende von {@link #events} die vorherige
+     * Eingabe wiederholt.
+     */
+    private long repeatCount;
+
+    /**
+     * Beginnt eine neue Aufzeichnung. Der Zustand des Zufallsgenerators muss
+     * ausgelesen werden, bevor das erste Tetromino gezogen wird.
+     *
+     * @param randomizer Der Zufallsgenerator, mit dem anschließend die
+     *                   Spiellogik erzeugt wird.
+     */
+    public Replay(Randomizer randomizer)
+    {
+        this(randomizer.getName(), randomizer.getState());
+    }
+
+    private Replay(String randomizerName, long[] initialState)
+    {
+        this.randomizerName = randomizerName;
+        this.initialState = initialState;
+    }
+
+    /**
+     * Erzeugt einen neuen Zufallsgenerator im Anfangszustand der Aufzeichnung.
+     *
+     * @return Ein Zufallsgenerator, der dieselbe Folge an Tetrominos liefert.
+     */
+    public Randomizer createRandomizer()
+    {
+        Randomizer randomizer = Randomizer.create(randomizerName, 0);
+        randomizer.setState(initialState.clone());
+        return randomizer;
+    }
+
+    /**
+     * Zeichnet eine Eingabe auf.
+     *
+     * @param frame Die Anzahl der bisher ausgeführten Einzelbilder der
+     *              Spiellogik.
+     * @param input Die Eingabe.
+     */
+    public void record(long frame, Input input)
+    {
+        append(frame, input.ordinal());
+    }
+
+    /**
+     * Beendet die Aufzeichnung.
+     *
+     * @param frame Die Anzahl der insgesamt ausgeführten Einzelbilder der
+     *              Spiellogik.
+     */
+    public void finish(long frame)
+    {
+        append(frame, END);
+        endFrame = frame;
+    }
+
+    private void append(long frame, int code)
+    {
+        if (endFrame >= 0)
+        {
+            throw new RuntimeException("Die Aufzeichnung ist bereits beendet.");
+        }
+        if (frame < lastFrame)
+        {
+            throw new RuntimeException(
+                    "Die Eingaben müssen zeitlich geordnet aufgezeichnet werden.");
+        }
+        long delta = frame - lastFrame;
+        if (length + 10 > events.length)
+        {
+            events = Arrays.copyOf(events, events.length * 2);
+        }
+        lastFrame = frame;
+        if (code == lastCode && delta == lastDelta)
+        {
+            // Die Wiederholung am Ende wird überschrieben, sodass eine gedrückt
+            // gehaltene Taste nicht mit jedem Schritt mehr Bytes belegt.
+            if (repeatPosition < 0)
+            {
+                repeatPosition = length;
+                repeatCount = 0;
+            }
+            repeatCount++;
+            length = writeVarint(events, repeatPosition,
+                    (repeatCount << 3) | REPEAT);
+            return;
+        }
+        length = writeVarint(events, length, (delta << 3) | code);
+        lastCode = code;
+        lastDelta = delta;
+        repeatPosition = -1;
+    }
+
+    /**
+     * Gibt an, ob die Aufzeichnung beendet ist.
+     *
+     * @return Wahr, wenn {@link #finish(long)} aufgerufen wurde.
+     */
+    public boolean isFinished()
+    {
+        return endFrame >= 0;
+    }
+
+    /**
+     * Gibt die Anzahl der Einzelbilder der Spiellogik zurück, die das Spiel
+     * gedauert hat.
+     *
+     * @return Die Anzahl der Einzelbilder oder {@code -1}, solange noch
+     *         aufgezeichnet wird.
+     */
+    public long getFrameCount()
+    {
+        return endFrame;
+    }
+
+    /**
+     * Gibt die kodierten Eingaben zurück, ohne sie zu kopieren.
+     */
+    byte[] getEvents()
+    {
+        return events;
+    }
+
+    /**
+     * Gibt die Anzahl der belegten Bytes der kodierten Eingaben zurück.
+     */
+    int getEventsLength()
+    {
+        return length;
+    }
+
+    /**
+     * Spielt die Aufzeichnung ohne Szene ab.
+     *
+     * <p>
+     * Wie in der Szene werden ausgefüllte Zeilen getilgt, bevor das nächste
+     * Einzelbild der Spiellogik ausgeführt wird.
+     * </p>
+     *
+     * @return Die Spiellogik nach dem letzten Einzelbild.
+     */
+    public GameLogic simulate()
+    {
+        if (!isFinished())
+        {
+            throw new RuntimeException("Die Aufzeichnung ist nicht beendet.");
+        }
+        GameLogic logic = new GameLogic(null, createRandomizer());
+        ReplayReader reader = new ReplayReader(this);
+        for (long frame = 0; frame < endFrame; frame++)
+        {
+            reader.apply(frame, logic);
+            if (logic.tick() && logic.getFilledRowRange() != null)
+            {
+                logic.clearFilledRows();
+            }
+        }
+        reader.apply(endFrame, logic);
+        return logic;
+    }
+
+    /**
+     * Kodiert die Aufzeichnung im Binärformat.
+     *
+     * @return Die Aufzeichnung als Bytes.
+     */
+    public byte[] toBytes()
+    {
+        if (!isFinished())
+        {
+            throw new RuntimeException("Die Aufzeichnung ist nicht beendet.");
+        }
+        byte[] name = randomizerName.getBytes(StandardCharsets.UTF_8);
+        byte[] bytes = new byte[MAGIC.length + 10 + name.length
+                + 10 * (initialState.length + 1) + length];
+        System.arraycopy(MAGIC, 0, bytes, 0, MAGIC.length);
+        int position = writeVarint(bytes, MAGIC.length, name.length);
+        System.arraycopy(name, 0, bytes, position, name.length);
+        position = writeVarint(bytes, position + name.length,
+                initialState.length);
+        for (long value : initialState)
+        {
+            position = writeVarint(bytes, position,
+                    (value << 1) ^ (value >> 63));
+        }
+        System.arraycopy(events, 0, bytes, position, length);
+        return Arrays.copyOf(bytes, position + length);
+    }
+
+    /**
+     * Dekodiert eine Aufzeichnung aus dem Binärformat.
+     *
+     * @param bytes Die mit {@link #toBytes()} erzeugten Bytes.
+     *
+     * @return Die beendete Aufzeichnung.
+     */
+    public static Replay fromBytes(byte[] bytes)
+    {
+        if (bytes.length < MAGIC.length || !Arrays.equals(bytes, 0,
+                MAGIC.length, MAGIC, 0, MAGIC.length))
+        {
+            throw new RuntimeException("Keine Aufzeichnung eines Spiels.");
+        }
+        long[] cursor = { MAGIC.length };
+        long nameLength = readVarint(bytes, cursor);
+        if (nameLength < 0 || nameLength > bytes.length - cursor[0])
+        {
+            throw new RuntimeException("Die Aufzeichnung ist beschädigt.");
+        }
+        int position = (int) cursor[0];
+        String name = new String(bytes, position, (int) nameLength,
+                StandardCharsets.UTF_8);
+        cursor[0] = position + nameLength;
+        // Jede Zustandszahl belegt mindestens ein Byte.
+        long stateLength = readVarint(bytes, cursor);
+        if (stateLength < 0 || stateLength > bytes.length - cursor[0])
+        {
+            throw new RuntimeException("Die Aufzeichnung ist beschädigt.");
+        }
+        long[] state = new long[(int) stateLength];
+        for (int i = 0; i < state.length; i++)
+        {
+            long value = readVarint(bytes, cursor);
+            state[i] = (value >>> 1) ^ -(value & 1);
+        }
+        Replay replay = new Replay(name, state);
+        // Die Eingaben werden einmal durchlaufen, um das Ende zu finden.
+        position = (int) cursor[0];
+        long frame = 0;
+        long delta = -1;
+        while (true)
+        {
+            long value = readVarint(bytes, cursor);
+            int code = (int) (value & 7);
+            if (code == REPEAT)
+            {
+                if (delta < 0 || value >>> 3 == 0)
+                {
+                    throw new RuntimeException(
+                            "Die Aufzeichnung ist beschädigt.");
+                }
+                frame += (value >>> 3) * delta;
+                continue;
+            }
+            delta = value >>> 3;
+            frame += delta;
+            if (code == END)
+            {
+                break;
+            }
+            Input.get(code);
+        }
+        replay.length = (int) cursor[0] - position;
+        replay.events = Arrays.copyOfRange(bytes, position, (int) cursor[0]);
+        replay.lastFrame = frame;
+        replay.endFrame = frame;
+        return replay;
+    }
+
+    /**
+     * Schreibt die Aufzeichnung in eine Datei.
+     *
+     * @param path Der Pfad der Datei.
+     */
+    public void write(Path path) throws IOException
+    {
+        Files.write(path, toBytes());
+    }
+
+    /**
+     * Liest eine Aufzeichnung aus einer Datei.
+     *
+     * @param path Der Pfad der Datei.
+     *
+     * @return Die Aufzeichnung.
+     */
+    public static Replay read(Path path) throws IOException
+    {
+        return fromBytes(Files.readAllBytes(path));
+    }
+
+    /**
+     * Schreibt eine Zahl als Varint.
+     *
+     * @return Die Position nach dem letzten geschriebenen Byte.
+     */
+    static int writeVarint(byte[] bytes, int position, long value)
+    {
+        while ((value & ~0x7FL) != 0)
+        {
+            bytes[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        bytes[position++] = (byte) value;
+        return position;
+    }
+
+    /**
+     * Liest ein Varint und setzt die Position im ersten Element von
+     * {@code cursor} weiter.
+     */
+    static long readVarint(byte[] bytes, long[] cursor)
+    {
+        long value = 0;
+        int position = (int) cursor[0];
+        for (int shift = 0; shift < 64; shift += 7)
+        {
+            if (position >= bytes.length)
+            {
+                throw new RuntimeException(
+                        "Die Aufzeichnung ist unvollständig.");
+            }
+            byte b = bytes[position++];
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0)
+            {
+                cursor[0] = position;
+                return value;
+            }
+        }
+        throw new RuntimeException("Die Aufzeichnung ist beschädigt.");
+    }
+}
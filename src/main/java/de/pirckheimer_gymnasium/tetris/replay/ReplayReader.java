@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2024 Josef Friedrich and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.pirckheimer_gymnasium.tetris.replay;
+
+import de.pirckheimer_gymnasium.tetris.logic.GameLogic;
+
+/**
+ * Liest die Eingaben einer {@link Replay Aufzeichnung} der Reihe nach.
+ *
+ * <p>
+ * Die Eingaben werden erst beim Lesen dekodiert. Dabei wird kein Speicher
+ * reserviert.
+ * </p>
+ *
+ * @author Josef Friedrich
+ */
+public class ReplayReader
+{
+    private final byte[] events;
+
+    private final int length;
+
+    /**
+     * Die Position des nächsten Eintrags im ersten Element.
+     */
+    private final long[] cursor = { 0 };
+
+    /**
+     * Das Einzelbild der nächsten Eingabe.
+     */
+    private long frame;
+
+    /**
+     * Die nächste Eingabe oder {@code null}, wenn das Ende erreicht ist.
+     */
+    private Input input;
+
+    /**
+     * Der Abstand der zuletzt gelesenen Eingabe zu ihrer Vorgängerin.
+     */
+    private long delta;
+
+    /**
+     * Wie oft die zuletzt gelesene Eingabe noch wiederholt wird.
+     */
+    private long remaining;
+
+    /**
+     * @param replay Eine beendete Aufzeichnung.
+     */
+    public ReplayReader(Replay replay)
+    {
+        if (!replay.isFinished())
+        {
+            throw new RuntimeException("Die Aufzeichnung ist nicht beendet.");
+        }
+        events = replay.getEvents();
+        length = replay.getEventsLength();
+        readNext();
+    }
+
+    private void readNext()
+    {
+        if (remaining == 0 && cursor[0] < length)
+        {
+            long value = Replay.readVarint(events, cursor);
+            int code = (int) (value & 7);
+            if (code == Replay.REPEAT)
+            {
+                remaining = value >>> 3;
+            }
+            else
+            {
+                delta = value >>> 3;
+                frame += delta;
+                input = code == Replay.END ? null : Input.get(code);
+                return;
+            }
+        }
+        if (remaining > 0 && input != null)
+        {
+            // Die vorherige Eingabe folgt noch einmal mit demselben Abstand.
+            remaining--;
+            frame += delta;
+            return;
+        }
+        input = null;
+    }
+
+    /**
+     * Gibt an, ob noch Eingaben folgen.
+     *
+     * @return Wahr, wenn noch Eingaben folgen.
+     */
+    public boolean hasNext()
+    {
+        return input != null;
+    }
+
+    /**
+     * Gibt die nächste Eingabe zurück, wenn sie im angegebenen Einzelbild
+     * aufgezeichnet wurde.
+     *
+     * @param frame Die Anzahl der bisher ausgeführten Einzelbilder der
+     *              Spiellogik.
+     *
+     * @return Die Eingabe oder {@code null}, wenn in diesem Einzelbild keine
+     *         weitere Eingabe aufgezeichnet wurde.
+     */
+    public Input poll(long frame)
+    {
+        if (input == null || this.frame > frame)
+        {
+            return null;
+        }
+        Input result = input;
+        readNext();
+        return result;
+    }
+
+    /**
+     * Führt alle Eingaben des angegebenen Einzelbilds in einer Spiellogik aus.
+     *
+     * @param frame Die Anzahl der bisher ausgeführten Einzelbilder der
+     *              Spiellogik.
+     * @param logic Die Spiellogik.
+     */
+    public void apply(long frame, GameLogic logic)
+    {
+        Input next;
+        while ((next = poll(frame)) != null)
+        {
+            next.apply(logic);
+        }
+    }
+}
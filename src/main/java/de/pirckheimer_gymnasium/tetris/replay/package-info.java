@@ -0,0 +1,22 @@
+/**
+ * Aufzeichnung und Wiedergabe von Spielen. Eine Aufzeichnung besteht aus dem
+ * Anfangszustand des Zufallsgenerators und den Eingaben, die mit der Nummer des
+ * Einzelbilds versehen kompakt binär gespeichert werden.
+ */
+package de.pirckheimer_gymnasium.tetris.replay;
+
+/*
+ * Copyright (c) 2024 Josef Friedrich and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
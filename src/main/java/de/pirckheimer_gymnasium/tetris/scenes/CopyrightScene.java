@@ -19,23 +19,56 @@ package de.pirckheimer_gymnasium.tetris.scenes;
 import java.awt.event.KeyEvent;
 
 import de.pirckheimer_gymnasium.engine_pi.event.KeyStrokeListener;
+import de.pirckheimer_gymnasium.tetris.Preloader;
 import de.pirckheimer_gymnasium.tetris.Tetris;
 
 /**
  * Das ist der erste Bildschirm, der beim Starten des Spiels angezeigt wird.
  *
+ * <p>
+ * Während der Bildschirm angezeigt wird, lädt der {@link Preloader} alle Bilder
+ * und Klänge im Hintergrund. Die Titelszene wird erst gestartet, wenn der
+ * Vorlader fertig ist.
+ * </p>
+ *
  * @author Josef Friedrich
  */
 public class CopyrightScene extends BaseScene implements KeyStrokeListener
 {
+    /**
+     * Nach wie vielen Sekunden erneut nachgesehen wird, ob der Vorlader fertig
+     * ist.
+     */
+    private static final double PRELOADER_POLL_INTERVAL = 0.1;
+
+    /**
+     * Ob bereits darauf gewartet wird, dass der Vorlader fertig ist.
+     */
+    private boolean isWaitingForPreloader = false;
+
     public CopyrightScene()
     {
         super("copyright");
+        Preloader.start();
         delay(4, () -> startTitleScene());
     }
 
     public void startTitleScene()
     {
+        // Solange noch Dateien geladen werden, sehen wir später erneut nach,
+        // statt die Engine zu blockieren.
+        if (!Preloader.start().isDone())
+        {
+            if (!isWaitingForPreloader)
+            {
+                isWaitingForPreloader = true;
+                delay(PRELOADER_POLL_INTERVAL, () -> {
+                    isWaitingForPreloader = false;
+                    startTitleScene();
+                });
+            }
+            return;
+        }
         Tetris.start(new TitleScene());
     }
 
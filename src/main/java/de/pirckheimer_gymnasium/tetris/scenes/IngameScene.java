@@ -17,48 +17,99 @@
 package de.pirckheimer_gymnasium.tetris.scenes;
 
 import java.awt.event.KeyEvent;
-import java.util.Random;
+import java.io.IOException;
+import java.lang.System.Logger;
+import java.lang.System.Logger.Level;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 import de.pirckheimer_gymnasium.engine_pi.Game;
 import de.pirckheimer_gymnasium.engine_pi.actor.Rectangle;
 import de.pirckheimer_gymnasium.engine_pi.event.KeyStrokeListener;
-import de.pirckheimer_gymnasium.engine_pi.event.PeriodicTaskExecutor;
-import de.pirckheimer_gymnasium.engine_pi.event.PressedKeyRepeater;
 import de.pirckheimer_gymnasium.tetris.Tetris;
+import de.pirckheimer_gymnasium.tetris.logic.FrameClock;
+import de.pirckheimer_gymnasium.tetris.logic.GameLogic;
+import de.pirckheimer_gymnasium.tetris.randomizer.Randomizer;
+import de.pirckheimer_gymnasium.tetris.randomizer.UniformRandomizer;
+import de.pirckheimer_gymnasium.tetris.replay.Input;
+import de.pirckheimer_gymnasium.tetris.replay.Replay;
+import de.pirckheimer_gymnasium.tetris.replay.ReplayReader;
 import de.pirckheimer_gymnasium.tetris.tetrominos.FilledRowRange;
-import de.pirckheimer_gymnasium.tetris.tetrominos.Grid;
-import de.pirckheimer_gymnasium.tetris.tetrominos.SoftDrop;
+import de.pirckheimer_gymnasium.tetris.tetrominos.GridRenderer;
 import de.pirckheimer_gymnasium.tetris.tetrominos.Tetromino;
 import de.pirckheimer_gymnasium.tetris.text.NumberDisplay;
 
 /**
  * Die Hauptspiel-Szene.
  *
+ * <p>
+ * Die Spielregeln sind in der Klasse {@link GameLogic} untergebracht. Diese
+ * Szene leitet nur die Tastatureingaben weiter und stellt den Spielstand dar.
+ * </p>
+ *
+ * <p>
+ * Das Blockgitter samt dem aktuellen Tetromino wird von einem einzigen
+ * {@link GridRenderer} gezeichnet. Die Spiellogik erzeugt ihre Blöcke deshalb
+ * ohne Szene.
+ * </p>
+ *
+ * <p>
+ * Die Zeit wird von einer {@link FrameClock} in ganze Einzelbilder mit der
+ * Bildwiederholungsrate des Gameboys umgerechnet. Schwerkraft, Soft-Drop und
+ * die Animation beim Tilgen von Zeilen werden in diesen Einzelbildern gezählt
+ * und sind daher unabhängig davon, wie oft die Engine die Szene zeichnet. Auch
+ * eine gedrückt gehaltene Pfeiltaste nach links oder rechts wiederholt die
+ * Bewegung in einem festen Abstand an Einzelbildern, damit die Aufzeichnung sie
+ * als Wiederholung speichern kann.
+ * </p>
+ *
+ * <p>
+ * Jedes Spiel wird als {@link Replay} aufgezeichnet. Ist die Systemeigenschaft
+ * {@code tetris.replays} gesetzt, wird die Aufzeichnung am Ende des Spiels in
+ * diesem Verzeichnis gespeichert. Wird der Szene eine Aufzeichnung übergeben,
+ * spielt sie diese ab und ignoriert die Tastatur.
+ * </p>
+ *
  * @author Josef Friedrich
  */
 public class IngameScene extends BaseScene implements KeyStrokeListener
 {
-    private Grid grid;
+    private static final Logger LOGGER = System
+            .getLogger(IngameScene.class.getName());
 
     /**
-     * Der Zufallsgenerator wird benötigt, um zufällig neue Tetrominos zu
-     * erzeugen. Wir verwenden die Method {@code Random#nextInt()} um zufällig
-     * Zahlen von {@code 0} bis einschließlich {@code 6} zu bekommen.
-     *
-     * @see #createNextTetromino()
+     * Die Anzahl an Einzelbildern, die ein Schritt der Animation beim Tilgen
+     * von Zeilen dauert, etwa eine sechstel Sekunde.
+     */
+    private static final int CLEAR_ANIMATION_FRAMES_PER_STEP = 10;
+
+    /**
+     * Die Anzahl der Schritte der Animation beim Tilgen von Zeilen.
      */
-    private static Random random = new Random();
+    private static final int CLEAR_ANIMATION_STEPS = 8;
 
     /**
-     * Die Nummer des nächsten Tetrominos.
+     * Nach wie vielen Einzelbildern eine gedrückt gehaltene Pfeiltaste nach
+     * links oder rechts die Bewegung zum ersten Mal wiederholt, etwa 0,15
+     * Sekunden.
      */
-    private int nextTetromino;
+    private static final int AUTO_REPEAT_DELAY = 9;
 
     /**
-     * Das aktuelle Tetromino, das gesteuert werden kann und automatisch nach
-     * unten fällt.
+     * In welchem Abstand an Einzelbildern die Bewegung anschließend wiederholt
+     * wird, etwa 0,03 Sekunden.
      */
-    private Tetromino tetromino;
+    private static final int AUTO_REPEAT_INTERVAL = 2;
+
+    /**
+     * Die Spiellogik, die die Spielregeln enthält.
+     */
+    private GameLogic logic;
+
+    /**
+     * Zeichnet das Blockgitter samt dem aktuellen Tetromino.
+     */
+    private final GridRenderer gridRenderer;
 
     /**
      * Das Vorschaubild des nächsten Tetrominos im linken unteren Bereich.
@@ -85,95 +136,118 @@ public class IngameScene extends BaseScene implements KeyStrokeListener
     private NumberDisplay clearedLines;
 
     /**
-     * Ein Feld, das die Anzahl an Einzelbilder enthält, nach denen eine
-     * Tetromino eine Zeile weiter nach unten rutscht.
-     *
-     * <p>
-     * Die Zahl an der Index-Position {@code 0} gibt die Anzahl an Einzelbilder
-     * des {@code 0}-ten Levels an, die {@code 1} die Anzahl des {@code 1}-ten
-     * Level, etc.
-     * </p>
-     *
-     * <p>
-     * Nach wie vielen Einzelbildern ein Tetromino eine Zeile weiter nach unten
-     * gesetzt wird und zwar im Verhältnis zum aktuellen Level.
-     * </p>
-     *
-     * <p>
-     * Quelle: <a href=
-     * "https://harddrop.com/wiki/Tetris_%28Game_Boy%29">harddrop.com</a>
-     * </p>
+     * Die Uhr, die die vergangene Zeit in Einzelbilder umrechnet.
      */
-    private final int[] GB_FRAMES_PER_ROW = { 53, 49, 45, 41, 37, 33, 28, 22,
-            17, 11, 10, 9, 8, 7, 6, 6, 5, 5, 4, 4, 3 };
+    private FrameClock clock = new FrameClock();
 
     /**
-     * Die Bildwiederholungsrate des originalen Gameboys pro Sekunde.
-     *
-     * <p>
-     * Quelle: <a href=
-     * "https://harddrop.com/wiki/Tetris_%28Game_Boy%29">harddrop.com</a>
-     * </p>
+     * Dadurch kann die Bewegung der Tetrominos gesperrt werden, wenn sich das
+     * Spiel gerade in einer Animation (z. B. Tilgung von Zeilen) befindet.
      */
-    private final double GB_FRAME_RATE = 59.73;
+    private boolean isInAnimation = false;
 
-    protected PressedKeyRepeater keyRepeater;
+    /**
+     * Wie viele Einzelbilder seit dem Beginn der Animation beim Tilgen von
+     * Zeilen vergangen sind.
+     */
+    private int animationFrame;
 
-    PeriodicTaskExecutor periodicTask;
+    /**
+     * Die Rechtecke, die während der Animation die ausgefüllten Zeilen
+     * überdecken.
+     */
+    private Rectangle[] overlays;
 
     /**
-     * Dadurch kann die Bewegung der Tetrominos gesperrt werden, wenn sich das
-     * Spiel gerade in einer Animation (z. B. Tilgung von Zeilen) befindet.
+     * Ob die Pfeiltaste nach unten gedrückt ist. Ein Soft-Drop beginnt nur,
+     * wenn die Taste neu gedrückt wird, damit das nächste Tetromino nicht
+     * sofort schneller fällt.
      */
-    private boolean isInAnimation = false;
+    private boolean isDownKeyPressed = false;
+
+    /**
+     * Die gedrückt gehaltene Pfeiltaste nach links oder rechts oder
+     * {@link KeyEvent#VK_UNDEFINED}.
+     */
+    private int heldKey = KeyEvent.VK_UNDEFINED;
+
+    /**
+     * Wie viele Einzelbilder der Spiellogik die Taste {@link #heldKey} bereits
+     * gedrückt ist.
+     */
+    private int heldFrames;
+
+    /**
+     * Die Aufzeichnung, die gerade aufgenommen oder abgespielt wird.
+     */
+    private final Replay replay;
+
+    /**
+     * Liest die Eingaben beim Abspielen einer Aufzeichnung, sonst {@code null}.
+     */
+    private ReplayReader replayReader;
 
     /**
-     * Gibt an, ob sich das Tetromino in einer Soft-Drop-Bewegung befindet. Als
-     * Soft-Drop bezeichnet man die schnellere nach unten gerichtete Bewegung
-     * des Tetromino.
+     * Wie viele Einzelbilder der Spiellogik bisher ausgeführt wurden. Die
+     * Einzelbilder der Animation beim Tilgen von Zeilen zählen nicht mit. Mit
+     * dieser Zahl werden die Eingaben der Aufzeichnung versehen.
      */
-    private SoftDrop softDrop = null;
+    private long logicFrame;
 
     public IngameScene()
+    {
+        this(null);
+    }
+
+    /**
+     * @param replay Eine Aufzeichnung, die abgespielt werden soll, oder
+     *               {@code null}, um ein neues Spiel aufzuzeichnen.
+     */
+    public IngameScene(Replay replay)
     {
         super("ingame");
-        // Das I-Tetromino ragt einen Block über das sichtbare Spielfeld hinaus,
-        // wenn es in der Startposition gedreht wird, deshalb machen wir das
-        // Blockgitter um eine Zeile höher.
-        grid = new Grid(Tetris.GRID_WIDTH, Tetris.HEIGHT + 1);
-        createNextTetromino();
+        Randomizer randomizer;
+        if (replay == null)
+        {
+            // Jedes Spiel erhält einen eigenen Zufallsgenerator mit einem
+            // neuen Startwert. Mit -Dtetris.randomizer=gameboy lässt sich
+            // z. B. der Generator des Game Boys wählen.
+            randomizer = Randomizer.create(System
+                    .getProperty("tetris.randomizer", UniformRandomizer.NAME),
+                    Randomizer.createSeed());
+            // Der Anfangszustand muss vor dem ersten Tetromino gesichert
+            // werden.
+            this.replay = new Replay(randomizer);
+        }
+        else
+        {
+            randomizer = replay.createRandomizer();
+            this.replay = replay;
+            replayReader = new ReplayReader(replay);
+        }
+        logic = new GameLogic(null, randomizer);
+        // Mit -Dtetris.wallKicks=true beginnt das Spiel mit eingeschalteten
+        // Ausweichverschiebungen. Mit der Taste K lassen sie sich jederzeit
+        // umschalten. Das Einschalten wird wie ein Tastendruck aufgezeichnet.
+        if (replayReader == null && Boolean.getBoolean("tetris.wallKicks"))
+        {
+            toggleWallKicks();
+        }
+        gridRenderer = new GridRenderer(logic.getGrid());
+        add(gridRenderer);
+        updatePreview();
         score = new NumberDisplay(this, 13, 14, 4);
         level = new NumberDisplay(this, 12, 10, 4);
         clearedLines = new NumberDisplay(this, 12, 7, 4);
-        periodicTask = repeat(caculateDownInterval(), (counter) -> {
-            if (softDrop == null)
-            {
-                moveDown();
-            }
-        });
-        keyRepeater = new PressedKeyRepeater();
-        keyRepeater.addListener(KeyEvent.VK_DOWN, () -> {
-            softDrop = new SoftDrop(tetromino);
-        }, () -> {
-            moveDown();
-        }, () -> {
-            softDrop = null;
-        });
-        keyRepeater.addListener(KeyEvent.VK_RIGHT, this::moveRight);
-        keyRepeater.addListener(KeyEvent.VK_LEFT, this::moveLeft);
+        addFrameUpdateListener(this::update);
         Sound.korobeiniki();
     }
 
-    private void createNextTetromino()
+    /**
+     * Erneuert das Vorschaubild des nächsten Tetrominos.
+     */
+    private void updatePreview()
     {
-        // Beim ersten Mal müssen zwei zufällige Tetrominos erzeugt werden.
-        // Wir müssen also zweimal eine Zufallszahl generieren.
-        if (previewTetromino == null)
-        {
-            nextTetromino = random.nextInt(7);
-        }
-        tetromino = Tetromino.create(this, grid, nextTetromino, 4, 16);
-        nextTetromino = random.nextInt(7);
         // Entfernen des alten Vorschaubildes, falls vorhanden.
         if (previewTetromino != null)
         {
@@ -181,214 +255,440 @@ public class IngameScene extends BaseScene implements KeyStrokeListener
         }
         // Das Vorschaubild liegt außerhalb des Blockgitters. Wir übergeben der
         // Methode null.
-        previewTetromino = Tetromino.create(this, null, nextTetromino, 14, 3);
+        previewTetromino = Tetromino.create(this, null,
+                logic.getNextTetromino(), 14, 3);
     }
 
     /**
-     * Setzt drei verschiedene Zahlen, die den Spielstand angeben.
-     *
-     * https://tetris.wiki/Scoring
-     *
-     * @param lines Die Anzahl an getilgten Zeilen.
-     *
-     * @return Eine Punkteanzahl zu der Gesamtpunktezahl hinzugezählt werden
-     *         muss.
+     * Überträgt die drei Zahlen, die den Spielstand angeben, aus der Spiellogik
+     * in die Nummernanzeigen.
      */
-    private void setScores(int lines)
+    private void updateScores()
     {
-        int s = 40;
-        if (lines == 2)
+        score.set(logic.getScore());
+        level.set(logic.getLevel());
+        clearedLines.set(logic.getClearedLines());
+    }
+
+    /**
+     * Bewegt das aktuelle Tetromino nach <b>links</b>.
+     */
+    private void moveLeft()
+    {
+        if (isInAnimation)
         {
-            s = 100;
+            return;
         }
-        else if (lines == 3)
+        if (logic.moveLeft())
         {
-            s = 300;
+            record(Input.LEFT);
+            Sound.blockMove();
         }
-        else if (lines == 4)
+    }
+
+    /**
+     * Bewegt das aktuelle Tetromino nach <b>rechts</b>.
+     */
+    private void moveRight()
+    {
+        if (isInAnimation)
         {
-            s = 1200;
+            return;
+        }
+        if (logic.moveRight())
+        {
+            record(Input.RIGHT);
+            Sound.blockMove();
         }
-        clearedLines.add(lines);
-        level.set(clearedLines.get() / 10);
-        int result = s * (level.get() + 1);
-        assert result > 0;
-        // Nach 10 getilgten Zeilen erhöht sich das Level.
-        score.add(result);
     }
 
     /**
-     * Berechnet das Zeitintervall in Sekunden, wie lange es dauert, bis sich
-     * das aktuelle Tetromino von einer Zeile zur darunterliegenden bewegt.
-     *
-     * <p>
-     * Wir bereichnen das Intervall mit Hilfe des Dreisatzes, hier mit konkreten
-     * Werte für das 0-te Level:
-     * </p>
-     *
-     * {@code interval / 53 = 1 / 59.73} gibt {@code interval = 1 / 59.73 * 53}
-     *
-     * <p>
-     * Mit Variablen
-     * </p>
-     *
-     * {@code interval / GB_FRAMES_PER_ROW[level] = 1 / GB_FRAME_RATE} gibt
-     * {@code interval = 1 / GB_FRAME_RATE * GB_FRAMES_PER_ROW[level] }
+     * Bewegt das aktuelle Tetromino in die Richtung der gedrückt gehaltenen
+     * Pfeiltaste.
      */
-    private double caculateDownInterval()
+    private void moveHeld()
     {
-        return 1.0 / GB_FRAME_RATE * GB_FRAMES_PER_ROW[level.get()];
+        if (heldKey == KeyEvent.VK_LEFT)
+        {
+            moveLeft();
+        }
+        else
+        {
+            moveRight();
+        }
     }
 
     /**
-     * Bewegt das aktuelle Tetromino nach <b>links</b>.
+     * Wiederholt die Bewegung der gedrückt gehaltenen Pfeiltaste nach links
+     * oder rechts, zunächst nach {@link #AUTO_REPEAT_DELAY} und dann alle
+     * {@link #AUTO_REPEAT_INTERVAL} Einzelbilder.
      */
-    private void moveLeft()
+    private void repeatHeldKey()
     {
-        if (isInAnimation)
+        if (heldKey == KeyEvent.VK_UNDEFINED)
         {
             return;
         }
-        if (tetromino.moveLeft())
+        heldFrames++;
+        if (heldFrames >= AUTO_REPEAT_DELAY
+                && (heldFrames - AUTO_REPEAT_DELAY) % AUTO_REPEAT_INTERVAL == 0)
         {
-            Sound.blockMove();
+            moveHeld();
         }
     }
 
     /**
-     * Bewegt das aktuelle Tetromino nach <b>rechts</b>.
+     * Dreht das aktuelle Tetromino.
      */
-    private void moveRight()
+    private void rotate()
+    {
+        if (logic.rotate())
+        {
+            record(Input.ROTATE);
+            Sound.blockRotate();
+        }
+    }
+
+    /**
+     * Beginnt eine Soft-Drop-Bewegung.
+     */
+    private void startSoftDrop()
     {
         if (isInAnimation)
         {
             return;
         }
-        if (tetromino.moveRight())
+        logic.startSoftDrop();
+        record(Input.DOWN_PRESS);
+    }
+
+    /**
+     * Beendet eine Soft-Drop-Bewegung.
+     */
+    private void stopSoftDrop()
+    {
+        if (logic.isSoftDropping())
         {
-            Sound.blockMove();
+            logic.stopSoftDrop();
+            record(Input.DOWN_RELEASE);
         }
     }
 
     /**
-     * Bewegt das aktuelle Tetromino um eine Zeile nach unten.
+     * Schaltet die Ausweichverschiebungen (wall kicks) ein und aus.
      */
-    private void moveDown()
+    private void toggleWallKicks()
     {
-        if (isInAnimation)
+        logic.setWallKicks(!logic.hasWallKicks());
+        record(Input.WALL_KICKS);
+    }
+
+    /**
+     * Nimmt eine Eingabe in die Aufzeichnung auf, wenn nicht gerade eine
+     * Aufzeichnung abgespielt wird und das Spiel noch läuft.
+     *
+     * @param input Die Eingabe, die den Spielstand verändert hat.
+     */
+    private void record(Input input)
+    {
+        if (replayReader == null && !replay.isFinished())
         {
-            return;
+            replay.record(logicFrame, input);
         }
-        // Wenn sich das Tetromino nicht mehr weiter nach unten bewegen kann.
-        if (!tetromino.moveDown())
+    }
+
+    /**
+     * Führt beim Abspielen alle Eingaben aus, die vor dem nächsten Einzelbild
+     * der Spiellogik aufgezeichnet wurden.
+     */
+    private void playInputs()
+    {
+        Input input;
+        while ((input = replayReader.poll(logicFrame)) != null)
         {
-            if (softDrop != null)
-            {
-                // Muss oberhalb von keyRepeater.stop() stehen.
-                score.add(softDrop.getDistance());
-            }
-            // Wir stoppen alle Tastenwiederholer (z. B. ausgelöst durch einen
-            // Softdrop), wenn sich ein Tetromino nicht
-            // mehr weiter nach unten bewegen kann. Würden wir den Wiederholer
-            // nicht stoppen, dann hätte das neue Tetromino gleich nach dem
-            // Erscheinen ein erhöhtes Falltempo.
-            keyRepeater.stop();
-            Sound.blockDrop();
-            softDrop = null;
-            var range = grid.getFilledRowRange();
-            if (range != null)
+            switch (input)
             {
-                clearLines(range);
-            }
-            else
-            {
-                // In der Methode clearLines() wird dann am Ende der Animation
-                // createNextTetromino() aufgerufen.
-                // Wenn keine Zeilen zu tilgen sind, wird keine Animation
-                // stattfinden und wir können gleich das nächste Tetromino
-                // erzeugen.
-                createNextTetromino();
+            case LEFT -> moveLeft();
+            case RIGHT -> moveRight();
+            case ROTATE -> rotate();
+            case DOWN_PRESS -> startSoftDrop();
+            case DOWN_RELEASE -> stopSoftDrop();
+            case WALL_KICKS -> toggleWallKicks();
             }
         }
     }
 
     /**
-     * Tilgt gefüllte Zeilen und führt eine Animation aus.
+     * Beendet die Aufzeichnung und speichert sie, wenn die Systemeigenschaft
+     * {@code tetris.replays} ein Verzeichnis angibt. Das Verzeichnis wird bei
+     * Bedarf angelegt. Kann die Aufzeichnung nicht gespeichert werden, wird nur
+     * eine Warnung protokolliert, damit das Spiel weiterläuft.
+     */
+    private void finishReplay()
+    {
+        if (replay.isFinished())
+        {
+            return;
+        }
+        replay.finish(logicFrame);
+        String directory = System.getProperty("tetris.replays");
+        if (directory == null)
+        {
+            return;
+        }
+        Path path = Path.of(directory, System.currentTimeMillis() + ".tlr");
+        try
+        {
+            Files.createDirectories(Path.of(directory));
+            replay.write(path);
+        }
+        catch (IOException e)
+        {
+            LOGGER.log(Level.WARNING,
+                    "Die Aufzeichnung konnte nicht gespeichert werden: " + path,
+                    e);
+        }
+    }
+
+    /**
+     * Wird von der Engine vor jedem Zeichnen aufgerufen und simuliert alle
+     * Einzelbilder, die seit dem letzten Aufruf vergangen sind.
+     *
+     * @param deltaSeconds Die seit dem letzten Aufruf vergangene Zeit in
+     *                     Sekunden.
+     */
+    private void update(double deltaSeconds)
+    {
+        int frames = clock.advance(deltaSeconds);
+        for (int i = 0; i < frames; i++)
+        {
+            tick();
+        }
+    }
+
+    /**
+     * Simuliert ein Einzelbild: entweder einen Schritt der Animation beim
+     * Tilgen von Zeilen oder ein Einzelbild der Spiellogik.
+     */
+    private void tick()
+    {
+        if (isInAnimation)
+        {
+            tickClearAnimation();
+            return;
+        }
+        if (logic.isGameOver())
+        {
+            finishReplay();
+            return;
+        }
+        if (replayReader != null)
+        {
+            playInputs();
+        }
+        else
+        {
+            repeatHeldKey();
+        }
+        boolean landed = logic.tick();
+        logicFrame++;
+        if (landed)
+        {
+            onLanded();
+        }
+    }
+
+    /**
+     * Wird aufgerufen, wenn sich das Tetromino nicht mehr weiter nach unten
+     * bewegen kann.
+     */
+    private void onLanded()
+    {
+        // Wir stoppen die Tastenwiederholung, wenn sich ein Tetromino nicht
+        // mehr weiter nach unten bewegen kann. Würden wir sie nicht stoppen,
+        // dann würde sich das neue Tetromino gleich nach dem Erscheinen
+        // seitlich bewegen.
+        heldKey = KeyEvent.VK_UNDEFINED;
+        Sound.blockDrop();
+        // Die Punkte eines Soft-Drops wurden gutgeschrieben.
+        updateScores();
+        FilledRowRange range = logic.getFilledRowRange();
+        if (range != null)
+        {
+            isInAnimation = true;
+            animationFrame = 0;
+            overlays = addOverlays(range);
+        }
+        else
+        {
+            // Die Spiellogik hat bereits das nächste Tetromino erzeugt.
+            updatePreview();
+        }
+    }
+
+    /**
+     * Führt ein Einzelbild der Animation beim Tilgen von Zeilen aus.
      *
      * <p>
-     * Diese Methode wird ausgeführt, wenn es ausgefüllte Zeilen gibt, die
-     * getilgt werden müssen.
+     * Alle {@link #CLEAR_ANIMATION_FRAMES_PER_STEP} Einzelbilder folgt der
+     * nächste Schritt der Animation.
      * </p>
      */
-    private void clearLines(FilledRowRange range)
+    private void tickClearAnimation()
+    {
+        animationFrame++;
+        if (animationFrame % CLEAR_ANIMATION_FRAMES_PER_STEP != 0)
+        {
+            return;
+        }
+        int step = animationFrame / CLEAR_ANIMATION_FRAMES_PER_STEP;
+        // 1. grau
+        // 2. Zeile sichtbar
+        // 3. grau
+        // 4. Zeile sichtbar
+        // 5. grau
+        // 6. Zeile sichtbar
+        // 7. Zeile getilgt
+        // 8. Zeilen oberhalb nach unten gerutscht
+        switch (step)
+        {
+        case 1:
+        case 3:
+        case 5:
+            setVisible(overlays, true);
+            break;
+
+        case 2:
+        case 4:
+        case 6:
+            setVisible(overlays, false);
+            break;
+
+        case 7:
+            logic.removeFilledRows();
+            break;
+
+        case CLEAR_ANIMATION_STEPS:
+            logic.triggerLandslide();
+            remove(overlays);
+            overlays = null;
+            updatePreview();
+            updateScores();
+            isInAnimation = false;
+            break;
+        }
+    }
+
+    /**
+     * Erzeugt für jede ausgefüllte Zeile ein Rechteck, das während der
+     * Animation ein- und ausgeblendet wird. Da die ausgefüllten Zeilen nicht
+     * zusammenhängen müssen, wird jede Zeile einzeln überdeckt.
+     *
+     * @param range Die ausgefüllten Zeilen.
+     *
+     * @return Die zunächst unsichtbaren Rechtecke.
+     */
+    private Rectangle[] addOverlays(FilledRowRange range)
     {
-        isInAnimation = true;
-        Rectangle overlay = addRectangle(10, range.getRowCount(), 0,
-                range.getFrom());
-        overlay.setColor(Tetris.COLOR_SCHEME_GREEN.getLight());
-        overlay.setVisible(false);
-        periodicTask.pause();
-        repeat(0.167, 8, (counter) -> {
-            // 1. grau
-            // 2. Zeile sichtbar
-            // 3. grau
-            // 4. Zeile sichtbar
-            // 5. grau
-            // 6. Zeile sichtbar
-            // 7. Zeile getilgt
-            // 8. Zeilen oberhalb nach unten gerutscht
-            switch (counter)
+        Rectangle[] overlays = new Rectangle[range.getRowCount()];
+        int i = 0;
+        for (int y = range.getFrom(); y <= range.getTo(); y++)
+        {
+            if (range.contains(y))
             {
-            case 1:
-            case 3:
-            case 5:
-                overlay.setVisible(true);
-                break;
-
-            case 2:
-            case 4:
-            case 6:
+                Rectangle overlay = addRectangle(10, 1, 0, y);
+                overlay.setColor(Tetris.COLOR_SCHEME_GREEN.getLight());
                 overlay.setVisible(false);
-                break;
-
-            case 7:
-                grid.removeFilledRowRange(range);
-                break;
-
-            case 8:
-                grid.triggerLandslide(range);
-                remove(overlay);
-                createNextTetromino();
-                periodicTask.resume();
-                setScores(range.getRowCount());
-                periodicTask.setInterval(caculateDownInterval());
-                isInAnimation = false;
-                break;
+                overlays[i++] = overlay;
             }
-        });
+        }
+        return overlays;
+    }
+
+    private void setVisible(Rectangle[] overlays, boolean visible)
+    {
+        for (Rectangle overlay : overlays)
+        {
+            overlay.setVisible(visible);
+        }
     }
 
     @Override
     public void onKeyDown(KeyEvent keyEvent)
     {
+        // Beim Abspielen einer Aufzeichnung wird die Tastatur ignoriert.
+        if (replayReader != null)
+        {
+            return;
+        }
         switch (keyEvent.getKeyCode())
         {
-        case KeyEvent.VK_SPACE:
-            boolean success = tetromino.rotate();
-            if (success)
+        case KeyEvent.VK_LEFT:
+        case KeyEvent.VK_RIGHT:
+            // Die Tastenwiederholung des Betriebssystems wird ignoriert.
+            if (heldKey != keyEvent.getKeyCode())
             {
-                Sound.blockRotate();
+                heldKey = keyEvent.getKeyCode();
+                heldFrames = 0;
+                moveHeld();
             }
             break;
+
+        case KeyEvent.VK_DOWN:
+            if (!isDownKeyPressed)
+            {
+                isDownKeyPressed = true;
+                startSoftDrop();
+            }
+            break;
+
+        case KeyEvent.VK_SPACE:
+            rotate();
+            break;
+
+        // Schaltet die Ausweichverschiebungen (wall kicks) ein und aus.
+        case KeyEvent.VK_K:
+            toggleWallKicks();
+            break;
+
+        // Wechselt die Farben des Blockgitters zwischen grün und grau.
+        case KeyEvent.VK_C:
+            gridRenderer.setColorScheme(
+                    gridRenderer.getColorScheme() == Tetris.COLOR_SCHEME_GREEN
+                            ? Tetris.COLOR_SCHEME_GRAY
+                            : Tetris.COLOR_SCHEME_GREEN);
+            break;
         }
         if (Game.isDebug())
         {
-            grid.print();
+            logic.getGrid().print();
         }
     }
 
-    public static void main(String[] args)
+    @Override
+    public void onKeyUp(KeyEvent keyEvent)
+    {
+        if (replayReader != null)
+        {
+            return;
+        }
+        if (keyEvent.getKeyCode() == KeyEvent.VK_DOWN)
+        {
+            isDownKeyPressed = false;
+            stopSoftDrop();
+        }
+        else if (keyEvent.getKeyCode() == heldKey)
+        {
+            heldKey = KeyEvent.VK_UNDEFINED;
+        }
+    }
+
+    /**
+     * Mit dem Pfad einer Aufzeichnung als Argument wird diese abgespielt.
+     */
+    public static void main(String[] args) throws IOException
     {
-        Tetris.start(new IngameScene());
+        Tetris.start(new IngameScene(
+                args.length > 0 ? Replay.read(Path.of(args[0])) : null));
     }
 }
@@ -25,6 +25,21 @@ import de.pirckheimer_gymnasium.tetris.Image;
  */
 public class Block
 {
+    /**
+     * Der größte Betrag einer Verschiebung in x- oder y-Richtung, für den der
+     * Verschiebungsvektor zwischengespeichert wird.
+     */
+    private static final int MAX_DELTA = 24;
+
+    /**
+     * Die zwischengespeicherten, unveränderlichen Verschiebungsvektoren, also
+     * {@code DELTAS[dX + MAX_DELTA][dY + MAX_DELTA]}. Sie werden erst bei der
+     * ersten Verwendung erzeugt, danach erzeugt das Bewegen eines Blocks keine
+     * neuen Objekte mehr.
+     */
+    private static final Vector[][] DELTAS = new Vector[2 * MAX_DELTA
+            + 1][2 * MAX_DELTA + 1];
+
     private int x;
 
     private int y;
@@ -41,12 +56,18 @@ public class Block
      * Wird benötigen diese Referenz, um den Block in die {@link Scene Szene}
      * einzufügen ({@link Scene#add}) bzw. aus der {@link Scene Szene} zu
      * entfernen ({@link Scene#remove}).
+     *
+     * <p>
+     * Ist die Referenz {@code null}, so wird kein Bild erzeugt. Der Block
+     * existiert dann nur als Koordinate, z. B. in einer Simulation ohne
+     * Fenster.
      */
     private Scene scene;
 
     /**
      * @param scene     Eine Referenz auf die {@link Scene Szene}, in der der
-     *                  Block angezeigt werden soll.
+     *                  Block angezeigt werden soll. Kann {@code null} sein,
+     *                  dann wird der Block nicht angezeigt.
      * @param imageName Das Hauptbild angegeben als Dateiname ohne die
      *                  Dateierweiterung, z. B. {@code "L"} oder
      *                  {@code "I_h_left"}.
@@ -59,11 +80,14 @@ public class Block
     {
         this.scene = scene;
         name = imageName;
-        image = new Image("blocks/" + imageName + ".png");
-        image.setPosition(x, y);
         this.x = x;
         this.y = y;
-        scene.add(image);
+        if (scene != null)
+        {
+            image = new Image("blocks/" + imageName + ".png");
+            image.setPosition(x, y);
+            scene.add(image);
+        }
     }
 
     /**
@@ -89,29 +113,68 @@ public class Block
 
     public int getX()
     {
-        assert (int) image.getX() == x;
+        assert image == null || (int) image.getX() == x;
         return x;
     }
 
     public int getY()
     {
-        assert (int) image.getY() == y;
+        assert image == null || (int) image.getY() == y;
         return y;
     }
 
+    /**
+     * Gibt einen zwischengespeicherten Verschiebungsvektor zurück.
+     *
+     * @param dX Delta-Wert der Bewegung in x-Richtung.
+     * @param dY Delta-Wert der Bewegung in y-Richtung.
+     *
+     * @return Ein unveränderlicher Vektor {@code (dX, dY)}.
+     */
+    private static Vector getDelta(int dX, int dY)
+    {
+        if (Math.abs(dX) > MAX_DELTA || Math.abs(dY) > MAX_DELTA)
+        {
+            return new Vector(dX, dY);
+        }
+        Vector delta = DELTAS[dX + MAX_DELTA][dY + MAX_DELTA];
+        if (delta == null)
+        {
+            delta = new Vector(dX, dY);
+            DELTAS[dX + MAX_DELTA][dY + MAX_DELTA] = delta;
+        }
+        return delta;
+    }
+
     public void moveBy(Vector vector)
     {
-        image.moveBy(vector);
         x = x + (int) vector.getX();
         y = y + (int) vector.getY();
-        // trigger assert
-        image.getX();
-        image.getY();
+        if (image != null)
+        {
+            image.moveBy(vector);
+        }
     }
 
+    /**
+     * Bewegt den Block um eine ganzzahlige Anzahl an Koordinaten.
+     *
+     * <p>
+     * Der Verschiebungsvektor für das Bild wird zwischengespeichert, sodass
+     * beim Bewegen kein neues Objekt erzeugt wird.
+     * </p>
+     *
+     * @param dX Delta-Wert der Bewegung in x-Richtung.
+     * @param dY Delta-Wert der Bewegung in y-Richtung.
+     */
     public void moveBy(int dX, int dY)
     {
-        moveBy(new Vector(dX, dY));
+        x = x + dX;
+        y = y + dY;
+        if (image != null)
+        {
+            image.moveBy(getDelta(dX, dY));
+        }
     }
 
     public void moveLeft()
@@ -131,6 +194,10 @@ public class Block
 
     public void remove()
     {
+        if (image == null)
+        {
+            return;
+        }
         scene.remove(image);
     }
 }
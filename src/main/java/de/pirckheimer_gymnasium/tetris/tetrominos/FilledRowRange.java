@@ -25,6 +25,14 @@ package de.pirckheimer_gymnasium.tetris.tetrominos;
  * ausgefüllt, so steht in {@link from} und {@link to} der gleiche Wert.
  * </p>
  *
+ * <p>
+ * Die ausgefüllten Zeilen müssen nicht zusammenhängen. Sind z. B. die Zeilen
+ * {@code 0} und {@code 2} voll, die Zeile {@code 1} aber nicht, so reicht der
+ * Bereich von {@code 0} bis {@code 2}, enthält aber nur zwei Zeilen. Welche
+ * Zeilen zwischen {@link #from} und {@link #to} ausgefüllt sind, speichert die
+ * Bitmaske {@link #rows}.
+ * </p>
+ *
  * @author Josef Friedrich
  */
 public class FilledRowRange
@@ -42,6 +50,14 @@ public class FilledRowRange
     private final int to;
 
     /**
+     * Die ausgefüllten Zeilen als Bitmaske. Das Bit {@code i} steht für die
+     * Zeile mit der y-Koordinate {@code from + i}.
+     */
+    private final long rows;
+
+    /**
+     * Erzeugt einen zusammenhängenden Bereich mit ausgefüllten Zeilen.
+     *
      * @param from Ab welcher y-Koordinate (einschließlich) der Bereich mit
      *             ausgefüllten Zeilen reicht.
      * @param to   Bis zu welcher y-Koordinate (einschließlich) der Bereich mit
@@ -49,8 +65,34 @@ public class FilledRowRange
      */
     public FilledRowRange(int from, int to)
     {
+        this(from, to,
+                to == from + Long.SIZE - 1 ? -1L : (1L << (to - from + 1)) - 1);
+    }
+
+    private FilledRowRange(int from, int to, long rows)
+    {
+        assert (rows & 1) == 1;
         this.from = from;
         this.to = to;
+        this.rows = rows;
+    }
+
+    /**
+     * Erzeugt einen Bereich mit ausgefüllten Zeilen, die nicht zusammenhängen
+     * müssen.
+     *
+     * @param from Ab welcher y-Koordinate (einschließlich) der Bereich mit
+     *             ausgefüllten Zeilen reicht.
+     * @param rows Die ausgefüllten Zeilen als Bitmaske. Das Bit {@code i} steht
+     *             für die Zeile mit der y-Koordinate {@code from + i}. Das Bit
+     *             {@code 0} muss gesetzt sein.
+     *
+     * @return Ein neuer Bereich mit ausgefüllten Zeilen.
+     */
+    public static FilledRowRange fromRowMask(int from, long rows)
+    {
+        return new FilledRowRange(from,
+                from + Long.SIZE - 1 - Long.numberOfLeadingZeros(rows), rows);
     }
 
     /**
@@ -84,8 +126,49 @@ public class FilledRowRange
      */
     public int getRowCount()
     {
-        int result = to - from + 1;
+        int result = Long.bitCount(rows);
         assert result > 0 && result < 5;
         return result;
     }
+
+    /**
+     * Gibt die ausgefüllten Zeilen als Bitmaske zurück.
+     *
+     * @return Eine Bitmaske, in der das Bit {@code i} für die Zeile mit der
+     *         y-Koordinate {@code getFrom() + i} steht.
+     */
+    public long getRows()
+    {
+        return rows;
+    }
+
+    /**
+     * Überprüft, ob eine Zeile zu den ausgefüllten Zeilen gehört.
+     *
+     * @param y Die y-Koordinate der Zeile.
+     *
+     * @return Wahr, wenn die Zeile ausgefüllt ist und getilgt wird.
+     */
+    public boolean contains(int y)
+    {
+        return y >= from && y <= to && (rows >>> (y - from) & 1) == 1;
+    }
+
+    /**
+     * Überprüft, ob die ausgefüllten Zeilen lückenlos aufeinander folgen.
+     *
+     * @return Wahr, wenn zwischen {@link #from} und {@link #to} alle Zeilen
+     *         ausgefüllt sind.
+     */
+    public boolean isContiguous()
+    {
+        return Long.bitCount(rows) == to - from + 1;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "FilledRowRange [from=" + from + ", to=" + to + ", rows="
+                + Long.toBinaryString(rows) + "]";
+    }
 }
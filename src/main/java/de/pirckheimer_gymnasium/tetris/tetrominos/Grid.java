@@ -16,6 +16,11 @@
  */
 package de.pirckheimer_gymnasium.tetris.tetrominos;
 
+import java.util.Arrays;
+import java.util.Objects;
+
+import de.pirckheimer_gymnasium.engine_pi.Scene;
+
 /**
  * Ein Blockgitter, das die Positionen aller Blöcke speichert.
  *
@@ -23,6 +28,31 @@ package de.pirckheimer_gymnasium.tetris.tetrominos;
  * Das „Herz“ dieser Klasse ist ein zweidimensionales Array/Feld aus Blöcken.
  * </p>
  *
+ * <p>
+ * Zusätzlich zum Blockfeld wird die Belegung jeder Zeile als Bitmaske
+ * (Bitboard) gespeichert. Das Bit {@code x} der Maske einer Zeile ist genau
+ * dann gesetzt, wenn die Koordinate {@code (x, y)} besetzt ist. Belegungstests,
+ * das Erkennen voller Zeilen und Kollisionsprüfungen kommen so mit wenigen
+ * Ganzzahloperationen aus.
+ * </p>
+ *
+ * <p>
+ * Mit {@link #snapshot()} kann der Zustand des Gitters günstig gesichert und
+ * mit {@link #restore(GridSnapshot)} wiederhergestellt werden.
+ * </p>
+ *
+ * <p>
+ * Außerdem wird ein {@link Zobrist Zobrist-Hashwert} der Belegung bei jeder
+ * Veränderung schrittweise nachgeführt.
+ * </p>
+ *
+ * <p>
+ * Jede Koordinate, deren Block sich ändert, wird als „schmutzig“ (dirty)
+ * markiert. Ein {@link GridRenderer} muss so nur die veränderten Koordinaten
+ * neu zeichnen und setzt die Markierungen danach mit {@link #clearDirtyCells()}
+ * zurück.
+ * </p>
+ *
  * @author Josef Friedrich
  */
 public class Grid
@@ -36,9 +66,156 @@ public class Grid
      */
     private Block[][] grid;
 
+    /**
+     * Die Belegung der Zeilen als Bitmasken. Der Index ist die y-Koordinate,
+     * das Bit {@code x} steht für die Spalte {@code x}.
+     */
+    private long[] rows;
+
+    /**
+     * Die Bitmaske einer vollständig ausgefüllten Zeile.
+     */
+    private final long fullRow;
+
+    /**
+     * Die Anzahl der Blöcke in jeder Zeile. Der Index ist die y-Koordinate.
+     *
+     * <p>
+     * Eine Zeile ist ausgefüllt, wenn ihr Zähler der Breite des Gitters
+     * entspricht.
+     * </p>
+     */
+    private int[] filledCells;
+
+    /**
+     * Die kleinste y-Koordinate, an der seit dem letzten Aufruf von
+     * {@link #resetAffectedRows()} ein Block eingefügt wurde.
+     */
+    private int affectedFrom;
+
+    /**
+     * Die größte y-Koordinate, an der seit dem letzten Aufruf von
+     * {@link #resetAffectedRows()} ein Block eingefügt wurde.
+     */
+    private int affectedTo;
+
+    /**
+     * Die Höhe jeder Spalte, also die y-Koordinate des obersten Blocks plus
+     * eins. Eine leere Spalte hat die Höhe {@code 0}.
+     *
+     * <p>
+     * Ist das Bit {@code x} in {@link #staleColumns} gesetzt, so ist der Wert
+     * nur eine obere Schranke und wird erst in {@link #getColumnHeight(int)}
+     * neu bestimmt. So kostet das Entfernen des obersten Blocks einer Spalte,
+     * was bei jeder Bewegung eines Tetrominos geschieht, keine Suche.
+     * </p>
+     */
+    private int[] columnHeights;
+
+    /**
+     * Eine Bitmaske der Spalten, deren Höhe in {@link #columnHeights} nur eine
+     * obere Schranke ist.
+     */
+    private long staleColumns;
+
+    /**
+     * Die Namen der Blöcke zeilenweise, also {@code names[y][x]}.
+     *
+     * <p>
+     * Im Gegensatz zum Blockfeld sind die Zeilen hier unveränderliche Werte,
+     * die mit {@link GridSnapshot Schnappschüssen} geteilt werden können.
+     * </p>
+     */
+    private String[][] names;
+
+    /**
+     * Gibt für jede Zeile an, ob sie mit einem Schnappschuss geteilt ist. Eine
+     * geteilte Zeile wird vor dem ersten Schreibzugriff kopiert.
+     */
+    private boolean[] sharedRows;
+
+    /**
+     * Die {@link Scene Szene}, in der beim Wiederherstellen eines
+     * Schnappschusses neue Blöcke angezeigt werden. Kann {@code null} sein.
+     */
+    private Scene scene;
+
+    /**
+     * Die {@link Zobrist Zobrist-Schlüssel} aller Koordinaten, also
+     * {@code cellKeys[y][x]}.
+     */
+    private final long[][] cellKeys;
+
+    /**
+     * Der Zobrist-Hashwert der Belegung, also die XOR-Verknüpfung der Schlüssel
+     * aller besetzten Koordinaten.
+     */
+    private long hash;
+
+    /**
+     * Die seit dem letzten Aufruf von {@link #clearDirtyCells()} veränderten
+     * Koordinaten als Bitmasken. Der Index ist die y-Koordinate, das Bit
+     * {@code x} steht für die Spalte {@code x}.
+     */
+    private long[] dirtyCells;
+
+    /**
+     * Die y-Koordinaten der Zeilen, die mindestens eine veränderte Koordinate
+     * enthalten. Nur die ersten {@link #dirtyRowCount} Einträge sind gültig.
+     */
+    private int[] dirtyRows;
+
+    /**
+     * Die Anzahl der Zeilen mit veränderten Koordinaten.
+     */
+    private int dirtyRowCount;
+
+    /**
+     * @param width  Die Breite des Blockgitters. Da die Belegung einer Zeile in
+     *               einer {@code long}-Bitmaske gespeichert wird, darf das
+     *               Gitter höchstens 64 Blöcke breit sein.
+     * @param height Die Höhe des Blockgitters.
+     */
     public Grid(int width, int height)
     {
+        this(null, width, height);
+    }
+
+    /**
+     * @param scene  Die {@link Scene Szene}, in der beim Wiederherstellen eines
+     *               {@link GridSnapshot Schnappschusses} neu erzeugte Blöcke
+     *               angezeigt werden. Kann {@code null} sein.
+     * @param width  Die Breite des Blockgitters. Da die Belegung einer Zeile in
+     *               einer {@code long}-Bitmaske gespeichert wird, darf das
+     *               Gitter höchstens 64 Blöcke breit sein.
+     * @param height Die Höhe des Blockgitters.
+     */
+    public Grid(Scene scene, int width, int height)
+    {
+        if (width < 1 || width > Long.SIZE)
+        {
+            throw new RuntimeException(
+                    "Das Blockgitter muss zwischen 1 und 64 Blöcke breit sein.");
+        }
         grid = new Block[width][height];
+        rows = new long[height];
+        fullRow = width == Long.SIZE ? -1L : (1L << width) - 1;
+        filledCells = new int[height];
+        columnHeights = new int[width];
+        names = new String[height][width];
+        sharedRows = new boolean[height];
+        dirtyCells = new long[height];
+        dirtyRows = new int[height];
+        this.scene = scene;
+        cellKeys = new long[height][width];
+        for (int y = 0; y < height; y++)
+        {
+            for (int x = 0; x < width; x++)
+            {
+                cellKeys[y][x] = Zobrist.cell(x, y);
+            }
+        }
+        resetAffectedRows();
     }
 
     /**
@@ -70,8 +247,25 @@ public class Grid
      */
     public void addBlock(Block block)
     {
-        assert grid[block.getX()][block.getY()] == null;
-        grid[block.getX()][block.getY()] = block;
+        int x = block.getX();
+        int y = block.getY();
+        assert grid[x][y] == null;
+        grid[x][y] = block;
+        getWritableNames(y)[x] = block.getName();
+        markDirty(y, 1L << x);
+        if ((rows[y] & 1L << x) == 0)
+        {
+            rows[y] |= 1L << x;
+            filledCells[y]++;
+            hash ^= cellKeys[y][x];
+        }
+        if (y + 1 >= columnHeights[x])
+        {
+            columnHeights[x] = y + 1;
+            staleColumns &= ~(1L << x);
+        }
+        affectedFrom = Math.min(affectedFrom, y);
+        affectedTo = Math.max(affectedTo, y);
     }
 
     /**
@@ -81,7 +275,50 @@ public class Grid
      */
     public void removeBlock(Block block)
     {
-        grid[block.getX()][block.getY()] = null;
+        int x = block.getX();
+        int y = block.getY();
+        grid[x][y] = null;
+        if ((rows[y] & 1L << x) != 0)
+        {
+            getWritableNames(y)[x] = null;
+            markDirty(y, 1L << x);
+            rows[y] &= ~(1L << x);
+            filledCells[y]--;
+            hash ^= cellKeys[y][x];
+            if (y + 1 == columnHeights[x])
+            {
+                staleColumns |= 1L << x;
+            }
+        }
+    }
+
+    /**
+     * Verschiebt mehrere Blöcke, z. B. die eines Tetrominos, um denselben
+     * Vektor.
+     *
+     * <p>
+     * Die Blöcke werden zuerst alle aus dem Gitter entfernt und dann an ihren
+     * neuen Positionen eingefügt, damit sie sich nicht gegenseitig
+     * überschreiben. Die betroffenen Zeilen umfassen danach genau die neuen
+     * Positionen.
+     * </p>
+     *
+     * @param blocks Die zu verschiebenden Blöcke.
+     * @param dX     Delta-Wert der Bewegung in x-Richtung.
+     * @param dY     Delta-Wert der Bewegung in y-Richtung.
+     */
+    public void moveBlocks(Block[] blocks, int dX, int dY)
+    {
+        for (Block block : blocks)
+        {
+            removeBlock(block);
+        }
+        resetAffectedRows();
+        for (Block block : blocks)
+        {
+            block.moveBy(dX, dY);
+            addBlock(block);
+        }
     }
 
     /**
@@ -95,33 +332,209 @@ public class Grid
     public boolean isTaken(int x, int y)
     {
         return x < 0 || x >= getWidth() || y < 0 || y >= getHeight()
-                || grid[x][y] != null;
+                || (rows[y] & 1L << x) != 0;
     }
 
     /**
-     * Überprüft, ob eine Zeile mit Blöcken ausgefüllt ist.
+     * Gibt den Namen des Blocks an einer Koordinate zurück.
      *
+     * @param x Die x-Koordinate.
      * @param y Die y-Koordinate ({@code 0} ist die unterste Zeile).
      *
-     * @return Wahr, wenn die angegeben Zeile mit Blöcken ausgefüllt ist.
+     * @return Der Name des Blocks, z. B. {@code "L"}, oder {@code null}, wenn
+     *         die Koordinate frei ist.
      */
-    private boolean isRowFull(int y)
+    public String getName(int x, int y)
+    {
+        return names[y][x];
+    }
+
+    /**
+     * Gibt die Belegung einer Zeile als Bitmaske zurück.
+     *
+     * @param y Die y-Koordinate ({@code 0} ist die unterste Zeile).
+     *
+     * @return Eine Bitmaske, in der das Bit {@code x} gesetzt ist, wenn die
+     *         Koordinate {@code (x, y)} besetzt ist.
+     */
+    public long getRowMask(int y)
     {
-        for (int x = 0; x < getWidth(); x++)
+        return rows[y];
+    }
+
+    /**
+     * Überprüft, ob sich eine Bitmaske mit der Belegung einer Zeile
+     * überschneidet.
+     *
+     * <p>
+     * Zeilen außerhalb des Gitters und Bits jenseits der Gitterbreite gelten
+     * als besetzt, damit Kollisionen mit dem Rand genauso erkannt werden wie
+     * Kollisionen mit Blöcken.
+     * </p>
+     *
+     * @param mask Die Bitmaske der zu überprüfenden Koordinaten einer Zeile.
+     * @param y    Die y-Koordinate der Zeile.
+     *
+     * @return Wahr, wenn mindestens eine Koordinate der Maske besetzt ist.
+     */
+    public boolean isTaken(long mask, int y)
+    {
+        if (mask == 0)
+        {
+            return false;
+        }
+        if (y < 0 || y >= getHeight())
+        {
+            return true;
+        }
+        return (mask & ~fullRow) != 0 || (rows[y] & mask) != 0;
+    }
+
+    /**
+     * Gibt die Höhe einer Spalte zurück.
+     *
+     * @param x Die x-Koordinate der Spalte.
+     *
+     * @return Die y-Koordinate des obersten Blocks der Spalte plus eins oder
+     *         {@code 0}, wenn die Spalte leer ist.
+     */
+    public int getColumnHeight(int x)
+    {
+        if ((staleColumns & 1L << x) != 0)
         {
-            if (grid[x][y] == null)
+            int height = columnHeights[x];
+            while (height > 0 && (rows[height - 1] & 1L << x) == 0)
             {
-                return false;
+                height--;
             }
+            columnHeights[x] = height;
+            staleColumns &= ~(1L << x);
         }
-        return true;
+        return columnHeights[x];
+    }
+
+    /**
+     * Berechnet, um wie viele Zeilen ein Block an der angegebenen Koordinate
+     * nach unten fallen kann, bis er auf einem anderen Block oder dem Boden
+     * aufsetzt.
+     *
+     * <p>
+     * Liegt der Block oberhalb der Spaltenhöhe, ergibt sich die Distanz direkt
+     * aus der Höhe. Nur unter einem Überhang muss die Spalte abgesucht werden.
+     * </p>
+     *
+     * @param x Die x-Koordinate des Blocks.
+     * @param y Die y-Koordinate des Blocks.
+     *
+     * @return Die Anzahl der freien Zeilen unterhalb des Blocks.
+     */
+    public int getDropDistance(int x, int y)
+    {
+        int height = getColumnHeight(x);
+        if (y >= height)
+        {
+            return y - height;
+        }
+        int distance = 0;
+        while (!isTaken(x, y - distance - 1))
+        {
+            distance++;
+        }
+        return distance;
+    }
+
+    /**
+     * Überprüft, ob eine Zeile mit Blöcken ausgefüllt ist.
+     *
+     * @param y Die y-Koordinate ({@code 0} ist die unterste Zeile).
+     *
+     * @return Wahr, wenn die angegeben Zeile mit Blöcken ausgefüllt ist.
+     */
+    private boolean isRowFull(int y)
+    {
+        return filledCells[y] == getWidth();
     }
 
+    /**
+     * Gibt die Anzahl der Blöcke in einer Zeile zurück.
+     *
+     * @param y Die y-Koordinate ({@code 0} ist die unterste Zeile).
+     *
+     * @return Die Anzahl der Blöcke in der angegebenen Zeile.
+     */
+    public int getFilledCells(int y)
+    {
+        return filledCells[y];
+    }
+
+    /**
+     * Beginnt eine neue Aufzeichnung der Zeilen, in die Blöcke eingefügt
+     * werden.
+     *
+     * <p>
+     * Ein Tetromino ruft diese Methode auf, bevor es seine Blöcke nach einer
+     * Bewegung wieder in das Gitter einfügt. Setzt das Tetromino auf, so
+     * umfassen die betroffenen Zeilen genau die Zeilen des Tetrominos.
+     * </p>
+     *
+     * @see #getAffectedFilledRowRange()
+     */
+    public void resetAffectedRows()
+    {
+        affectedFrom = Integer.MAX_VALUE;
+        affectedTo = -1;
+    }
+
+    /**
+     * Sucht ausgefüllte Zeilen nur in den Zeilen, in die seit dem letzten
+     * Aufruf von {@link #resetAffectedRows()} Blöcke eingefügt wurden.
+     *
+     * <p>
+     * Da ein aufgesetztes Tetromino nur die Zeilen verändert, die es selbst
+     * belegt, hängt der Aufwand nur von der Größe des Tetrominos und nicht von
+     * der Höhe des Gitters ab.
+     * </p>
+     *
+     * @return Der Bereich mit vollen Zeilen oder {@code null}, wenn in den
+     *         betroffenen Zeilen keine Zeile ausgefüllt ist.
+     */
+    public FilledRowRange getAffectedFilledRowRange()
+    {
+        return getFilledRowRange(affectedFrom, affectedTo);
+    }
+
+    /**
+     * Sucht im ganzen Gitter nach ausgefüllten Zeilen.
+     *
+     * @return Der Bereich mit vollen Zeilen oder {@code null}, wenn keine Zeile
+     *         ausgefüllt ist.
+     */
     public FilledRowRange getFilledRowRange()
+    {
+        return getFilledRowRange(0, getHeight() - 1);
+    }
+
+    /**
+     * Sucht ausgefüllte Zeilen zwischen zwei y-Koordinaten.
+     *
+     * <p>
+     * Die gefundenen Zeilen müssen nicht zusammenhängen. Da die Zeilen als
+     * Bitmaske relativ zur untersten vollen Zeile gespeichert werden, werden
+     * höchstens 64 Zeilen ab der untersten vollen Zeile berücksichtigt.
+     * </p>
+     *
+     * @param fromY Ab welcher y-Koordinate (einschließlich) gesucht wird.
+     * @param toY   Bis zu welcher y-Koordinate (einschließlich) gesucht wird.
+     *
+     * @return Die vollen Zeilen oder {@code null}, wenn keine Zeile ausgefüllt
+     *         ist.
+     */
+    public FilledRowRange getFilledRowRange(int fromY, int toY)
     {
         int from = -1;
-        int to = -1;
-        for (int y = 0; y < getHeight(); y++)
+        long filledRows = 0;
+        for (int y = Math.max(fromY, 0); y <= Math.min(toY,
+                getHeight() - 1); y++)
         {
             if (isRowFull(y))
             {
@@ -129,12 +542,16 @@ public class Grid
                 {
                     from = y;
                 }
-                to = y;
+                else if (y - from >= Long.SIZE)
+                {
+                    break;
+                }
+                filledRows |= 1L << (y - from);
             }
         }
-        if (from > -1 && to > -1)
+        if (from > -1)
         {
-            return new FilledRowRange(from, to);
+            return FilledRowRange.fromRowMask(from, filledRows);
         }
         return null;
     }
@@ -147,13 +564,25 @@ public class Grid
      */
     public void clearRow(int y)
     {
-        for (int x = 0; x < getWidth(); x++)
+        for (long mask = rows[y]; mask != 0; mask &= mask - 1)
         {
-            if (isTaken(x, y))
-            {
-                grid[x][y].remove();
-                grid[x][y] = null;
-            }
+            int x = Long.numberOfTrailingZeros(mask);
+            grid[x][y].remove();
+            grid[x][y] = null;
+            hash ^= cellKeys[y][x];
+        }
+        staleColumns |= rows[y];
+        markDirty(y, rows[y]);
+        rows[y] = 0;
+        filledCells[y] = 0;
+        if (sharedRows[y])
+        {
+            names[y] = new String[getWidth()];
+            sharedRows[y] = false;
+        }
+        else
+        {
+            Arrays.fill(names[y], null);
         }
     }
 
@@ -183,7 +612,10 @@ public class Grid
         }
         for (int y = range.getFrom(); y <= range.getTo(); y++)
         {
-            clearRow(y);
+            if (range.contains(y))
+            {
+                clearRow(y);
+            }
         }
     }
 
@@ -191,6 +623,13 @@ public class Grid
      * Löst einen Erdrutsch (landslide) aus, das heißt alle Blöcke oberhalb des
      * getilgten Bereichs werden nach unten bewegt.
      *
+     * <p>
+     * Die Zeilen werden in einem einzigen Durchgang von unten nach oben
+     * zusammengeschoben: Jede verbleibende Zeile wird genau einmal an ihre
+     * endgültige Position verschoben. Dadurch werden auch getilgte Bereiche mit
+     * Lücken, z. B. die Zeilen {@code 0} und {@code 2}, richtig behandelt.
+     * </p>
+     *
      * @param range Der getilgte Bereich mit vollen Zeilen.
      */
     public void triggerLandslide(FilledRowRange range)
@@ -199,19 +638,255 @@ public class Grid
         {
             return;
         }
-        for (int y = range.getTo() + 1; y < getHeight(); y++)
+        // Die y-Koordinate, an die die nächste verbleibende Zeile verschoben
+        // wird.
+        int target = range.getFrom();
+        for (int y = range.getFrom(); y < getHeight(); y++)
         {
-            for (int x = 0; x < getWidth(); x++)
+            if (range.contains(y))
+            {
+                continue;
+            }
+            // Leere Zeilen müssen nicht verschoben werden, da alle Zeilen
+            // unterhalb von y bereits getilgt oder verschoben wurden.
+            if (target != y && rows[y] != 0)
+            {
+                moveRow(y, target);
+            }
+            target++;
+        }
+        resetAffectedRows();
+    }
+
+    /**
+     * Verschiebt alle Blöcke einer Zeile in eine andere, leere Zeile.
+     *
+     * @param from Die y-Koordinate der Zeile, deren Blöcke verschoben werden.
+     * @param to   Die y-Koordinate der leeren Zeile, in die die Blöcke
+     *             verschoben werden.
+     */
+    private void moveRow(int from, int to)
+    {
+        assert rows[to] == 0;
+        // Wir besuchen nur die gesetzten Bits der Zeile.
+        for (long mask = rows[from]; mask != 0; mask &= mask - 1)
+        {
+            int x = Long.numberOfTrailingZeros(mask);
+            Block block = grid[x][from];
+            block.moveBy(0, to - from);
+            grid[x][from] = null;
+            grid[x][to] = block;
+            hash ^= cellKeys[from][x] ^ cellKeys[to][x];
+        }
+        staleColumns |= rows[from];
+        markDirty(from, rows[from]);
+        markDirty(to, rows[from]);
+        rows[to] = rows[from];
+        rows[from] = 0;
+        filledCells[to] = filledCells[from];
+        filledCells[from] = 0;
+        // Die Zielzeile ist leer, daher genügt es, die Namenszeilen samt ihrer
+        // Markierung als geteilte Zeile zu vertauschen.
+        String[] emptyNames = names[to];
+        names[to] = names[from];
+        names[from] = emptyNames;
+        boolean emptyShared = sharedRows[to];
+        sharedRows[to] = sharedRows[from];
+        sharedRows[from] = emptyShared;
+    }
+
+    /**
+     * Gibt die Namenszeile zurück, sodass sie verändert werden darf. Ist die
+     * Zeile mit einem Schnappschuss geteilt, wird sie vorher kopiert.
+     *
+     * @param y Die y-Koordinate der Zeile.
+     *
+     * @return Die veränderbare Namenszeile.
+     */
+    private String[] getWritableNames(int y)
+    {
+        if (sharedRows[y])
+        {
+            names[y] = names[y].clone();
+            sharedRows[y] = false;
+        }
+        return names[y];
+    }
+
+    /**
+     * Sichert den aktuellen Zustand des Blockgitters.
+     *
+     * <p>
+     * Es werden keine Blöcke kopiert: Der Schnappschuss teilt sich die Zeilen
+     * mit dem Gitter, das eine Zeile erst beim nächsten Schreibzugriff kopiert.
+     * Der Aufwand hängt daher nur von der Höhe des Gitters ab.
+     * </p>
+     *
+     * <p>
+     * Die Blöcke eines Tetrominos, das sich gerade im Gitter befindet, werden
+     * wie abgelegte Blöcke gesichert.
+     * </p>
+     *
+     * @return Ein unveränderlicher Schnappschuss des Gitters.
+     */
+    public GridSnapshot snapshot()
+    {
+        Arrays.fill(sharedRows, true);
+        return new GridSnapshot(names.clone(), rows.clone(), hash);
+    }
+
+    /**
+     * Stellt einen zuvor gesicherten Zustand des Blockgitters wieder her.
+     *
+     * <p>
+     * Zeilen, die seit dem Schnappschuss nicht verändert wurden, werden
+     * übersprungen. In den übrigen Zeilen werden nur die Koordinaten angepasst,
+     * deren Block sich unterscheidet. Neue Blöcke werden in der Szene des
+     * Gitters angezeigt.
+     * </p>
+     *
+     * <p>
+     * Ein Tetromino, dessen Blöcke sich noch im Gitter befinden, ist nach dem
+     * Wiederherstellen ungültig und sollte vorher entfernt werden.
+     * </p>
+     *
+     * @param snapshot Der wiederherzustellende Schnappschuss.
+     */
+    public void restore(GridSnapshot snapshot)
+    {
+        if (snapshot.getWidth() != getWidth()
+                || snapshot.getHeight() != getHeight())
+        {
+            throw new RuntimeException(
+                    "Der Schnappschuss passt nicht zur Größe des Blockgitters.");
+        }
+        for (int y = 0; y < getHeight(); y++)
+        {
+            String[] target = snapshot.names[y];
+            if (names[y] != target)
             {
-                if (isTaken(x, y))
+                for (int x = 0; x < getWidth(); x++)
                 {
-                    Block block = grid[x][y];
-                    block.moveBy(0, -range.getRowCount());
-                    grid[x][y] = null;
-                    grid[x][y - range.getRowCount()] = block;
+                    if (Objects.equals(names[y][x], target[x]))
+                    {
+                        continue;
+                    }
+                    markDirty(y, 1L << x);
+                    if (grid[x][y] != null)
+                    {
+                        grid[x][y].remove();
+                        grid[x][y] = null;
+                    }
+                    if (target[x] != null)
+                    {
+                        grid[x][y] = new Block(scene, target[x], x, y);
+                    }
                 }
+                names[y] = target;
             }
+            sharedRows[y] = true;
+            rows[y] = snapshot.rows[y];
+            filledCells[y] = Long.bitCount(rows[y]);
+        }
+        // Die Höhe des Gitters ist eine obere Schranke jeder Spaltenhöhe.
+        Arrays.fill(columnHeights, getHeight());
+        staleColumns = fullRow;
+        hash = snapshot.hash;
+        resetAffectedRows();
+    }
+
+    /**
+     * Markiert Koordinaten einer Zeile als verändert.
+     *
+     * @param y    Die y-Koordinate der Zeile.
+     * @param mask Die Bitmaske der veränderten Koordinaten.
+     */
+    private void markDirty(int y, long mask)
+    {
+        if (mask == 0)
+        {
+            return;
         }
+        if (dirtyCells[y] == 0)
+        {
+            dirtyRows[dirtyRowCount++] = y;
+        }
+        dirtyCells[y] |= mask;
+    }
+
+    /**
+     * Gibt die Anzahl der Zeilen zurück, in denen sich seit dem letzten Aufruf
+     * von {@link #clearDirtyCells()} mindestens eine Koordinate verändert hat.
+     *
+     * @return Die Anzahl der veränderten Zeilen.
+     */
+    public int getDirtyRowCount()
+    {
+        return dirtyRowCount;
+    }
+
+    /**
+     * Gibt die y-Koordinate einer veränderten Zeile zurück.
+     *
+     * @param index Ein Index zwischen {@code 0} (einschließlich) und
+     *              {@link #getDirtyRowCount()} (ausschließlich). Die
+     *              Reihenfolge entspricht der Reihenfolge der ersten Änderung.
+     *
+     * @return Die y-Koordinate der veränderten Zeile.
+     */
+    public int getDirtyRow(int index)
+    {
+        return dirtyRows[index];
+    }
+
+    /**
+     * Gibt die veränderten Koordinaten einer Zeile als Bitmaske zurück.
+     *
+     * <p>
+     * Eine Koordinate gilt auch dann als verändert, wenn sie zwischenzeitlich
+     * geleert und wieder mit demselben Block belegt wurde.
+     * </p>
+     *
+     * @param y Die y-Koordinate der Zeile.
+     *
+     * @return Eine Bitmaske, in der das Bit {@code x} gesetzt ist, wenn sich
+     *         der Block an der Koordinate {@code (x, y)} verändert hat.
+     */
+    public long getDirtyMask(int y)
+    {
+        return dirtyCells[y];
+    }
+
+    /**
+     * Setzt alle Markierungen veränderter Koordinaten zurück.
+     *
+     * <p>
+     * Der Aufwand hängt nur von der Anzahl der veränderten Zeilen ab.
+     * </p>
+     */
+    public void clearDirtyCells()
+    {
+        for (int i = 0; i < dirtyRowCount; i++)
+        {
+            dirtyCells[dirtyRows[i]] = 0;
+        }
+        dirtyRowCount = 0;
+    }
+
+    /**
+     * Gibt den Zobrist-Hashwert der Belegung zurück.
+     *
+     * <p>
+     * Der Hashwert hängt nur davon ab, welche Koordinaten besetzt sind, nicht
+     * von den Namen der Blöcke. Er wird bei jeder Veränderung nachgeführt, die
+     * Abfrage kostet daher nichts.
+     * </p>
+     *
+     * @return Der Zobrist-Hashwert der Belegung.
+     */
+    public long getHash()
+    {
+        return hash;
     }
 
     /**
@@ -0,0 +1,310 @@
+/*
+ * Copyright (c) 2024 Josef Friedrich and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.pirckheimer_gymnasium.tetris.tetrominos;
+
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import de.pirckheimer_gymnasium.tetris.ColorScheme;
+import de.pirckheimer_gymnasium.tetris.Image;
+import de.pirckheimer_gymnasium.tetris.Tetris;
+
+/**
+ * Zeichnet das ganze {@link Grid Blockgitter} als ein einziges Bild.
+ *
+ * <p>
+ * Statt für jeden Block einen eigenen Akteur in die Szene einzufügen, werden
+ * alle Blöcke in ein gemeinsames {@link BufferedImage} gezeichnet, das wie eine
+ * Kachelkarte (tile map) aufgebaut ist: Jede Koordinate des Gitters entspricht
+ * einer Kachel der Größe eines Blocks. Die Szene enthält so statt etwa 200
+ * Blöcken nur noch einen Akteur.
+ * </p>
+ *
+ * <p>
+ * Vor jedem Einzelbild werden nur die Kacheln neu gezeichnet, die das Gitter
+ * seit dem letzten Zeichnen als verändert markiert hat, z. B. die alte und neue
+ * Position des Tetrominos oder getilgte Zeilen. Der Aufwand hängt daher von der
+ * Anzahl der Änderungen und nicht von der Größe des Gitters ab. Ein Erdrutsch
+ * verschiebt keine einzelnen Akteure mehr, sondern zeichnet nur die veränderten
+ * Kacheln neu.
+ * </p>
+ *
+ * <p>
+ * Das Bild speichert pro Pixel nur den Index einer der vier Farben eines
+ * {@link ColorScheme Farbschemas}, also ein Byte. Die Farben werden erst beim
+ * Zeichnen über eine Farbpalette bestimmt. Mit
+ * {@link #setColorScheme(ColorScheme)} kann das Farbschema daher gewechselt
+ * werden, ohne eine einzige Kachel neu zu zeichnen. Das gilt nur für das
+ * Blockgitter: Hintergründe, Schrift und das Vorschaubild sind eingefärbte
+ * Bilder und bleiben im grünen Farbschema.
+ * </p>
+ *
+ * <p>
+ * Da der Renderer die Markierungen des Gitters nach dem Zeichnen zurücksetzt,
+ * sollte jedes Gitter von höchstens einem Renderer gezeichnet werden.
+ * </p>
+ *
+ * <p>
+ * Die Blöcke im Gitter sollten ohne
+ * {@link de.pirckheimer_gymnasium.engine_pi.Scene Szene} erzeugt werden, da sie
+ * sonst zusätzlich als eigene Akteure angezeigt werden.
+ * </p>
+ *
+ * @author Josef Friedrich
+ */
+public class GridRenderer extends de.pirckheimer_gymnasium.engine_pi.actor.Image
+{
+    /**
+     * Die Größe einer Kachel in Pixeln.
+     */
+    private static final int TILE_SIZE = Tetris.BLOCK_SIZE * Tetris.SCALE;
+
+    /**
+     * Das Blockgitter, das gezeichnet wird.
+     */
+    private final Grid grid;
+
+    /**
+     * Die Namen der Blöcke, die zuletzt in die Kacheln gezeichnet wurden, also
+     * {@code drawn[y][x]}.
+     */
+    private final String[][] drawn;
+
+    /**
+     * Das Raster mit den Farbindizes aller Kacheln.
+     */
+    private final WritableRaster raster;
+
+    /**
+     * Das Raster einer freien, durchsichtigen Kachel.
+     */
+    private final Raster emptyTile;
+
+    /**
+     * Das Bild, das angezeigt wird. Es verbindet das {@link #raster} mit der
+     * Farbpalette des aktuellen Farbschemas.
+     */
+    private BufferedImage view;
+
+    /**
+     * Das aktuelle Farbschema.
+     */
+    private ColorScheme colorScheme;
+
+    /**
+     * Die Raster der Blöcke nach ihrem Namen, damit der Pfad nicht bei jedem
+     * Zeichnen zusammengesetzt werden muss.
+     */
+    private final Map<String, Raster> tiles = new HashMap<>();
+
+    /**
+     * Ob beim nächsten Zeichnen alle Kacheln überprüft werden müssen. Das ist
+     * nur beim ersten Zeichnen der Fall, da das Gitter zu diesem Zeitpunkt
+     * bereits Blöcke enthalten kann.
+     */
+    private boolean fullRedraw = true;
+
+    /**
+     * @param grid Das Blockgitter, das gezeichnet wird. Die linke untere Ecke
+     *             des Bilds entspricht der Koordinate {@code (0, 0)} des
+     *             Gitters.
+     */
+    public GridRenderer(Grid grid)
+    {
+        this(grid, Tetris.COLOR_SCHEME_GREEN);
+    }
+
+    /**
+     * @param grid        Das Blockgitter, das gezeichnet wird. Die linke untere
+     *                    Ecke des Bilds entspricht der Koordinate
+     *                    {@code (0, 0)} des Gitters.
+     * @param colorScheme Das Farbschema, in dem die Blöcke angezeigt werden.
+     */
+    public GridRenderer(Grid grid, ColorScheme colorScheme)
+    {
+        this(grid, createView(grid, colorScheme));
+        this.colorScheme = colorScheme;
+    }
+
+    private GridRenderer(Grid grid, BufferedImage view)
+    {
+        super(view, TILE_SIZE);
+        this.grid = grid;
+        this.view = view;
+        raster = view.getRaster();
+        WritableRaster empty = raster.createCompatibleWritableRaster(TILE_SIZE,
+                TILE_SIZE);
+        byte[] transparent = new byte[TILE_SIZE * TILE_SIZE];
+        Arrays.fill(transparent, (byte) ColorScheme.TRANSPARENT_INDEX);
+        empty.setDataElements(0, 0, TILE_SIZE, TILE_SIZE, transparent);
+        emptyTile = empty;
+        // Ein neues Raster enthält nur den Index 0, also Weiß. Wir leeren
+        // daher zuerst alle Kacheln.
+        drawn = new String[grid.getHeight()][grid.getWidth()];
+        for (int y = 0; y < grid.getHeight(); y++)
+        {
+            for (int x = 0; x < grid.getWidth(); x++)
+            {
+                drawEmptyTile(x, y);
+            }
+        }
+        addFrameUpdateListener(deltaSeconds -> redraw());
+    }
+
+    /**
+     * Erzeugt ein leeres Bild mit einem Byte pro Pixel für das ganze Gitter.
+     */
+    private static BufferedImage createView(Grid grid, ColorScheme colorScheme)
+    {
+        return new BufferedImage(grid.getWidth() * TILE_SIZE,
+                grid.getHeight() * TILE_SIZE, BufferedImage.TYPE_BYTE_INDEXED,
+                colorScheme.getIndexColorModel());
+    }
+
+    /**
+     * Wechselt das Farbschema, in dem die Blöcke angezeigt werden.
+     *
+     * <p>
+     * Es wird nur die Farbpalette ausgetauscht, die Kacheln werden nicht neu
+     * gezeichnet. Der Aufwand ist daher unabhängig von der Größe des Gitters.
+     * </p>
+     *
+     * @param colorScheme Das neue Farbschema.
+     */
+    public void setColorScheme(ColorScheme colorScheme)
+    {
+        this.colorScheme = colorScheme;
+        view = new BufferedImage(colorScheme.getIndexColorModel(), raster,
+                false, null);
+    }
+
+    /**
+     * Gibt das aktuelle Farbschema zurück.
+     *
+     * @return Das Farbschema, in dem die Blöcke angezeigt werden.
+     */
+    public ColorScheme getColorScheme()
+    {
+        return colorScheme;
+    }
+
+    /**
+     * Zeichnet das Bild mit der Farbpalette des aktuellen Farbschemas.
+     *
+     * <p>
+     * Das Bild ist genau eine Kachel pro Meter groß. Wie bei einem gewöhnlichen
+     * Bild liegt die linke untere Ecke an der Position des Akteurs.
+     * </p>
+     */
+    @Override
+    public void render(Graphics2D g, double pixelPerMeter)
+    {
+        AffineTransform transform = g.getTransform();
+        g.scale(pixelPerMeter / TILE_SIZE, pixelPerMeter / TILE_SIZE);
+        g.drawImage(view, 0, -view.getHeight(), null);
+        g.setTransform(transform);
+    }
+
+    /**
+     * Zeichnet alle Kacheln neu, deren Block sich seit dem letzten Zeichnen
+     * geändert hat.
+     */
+    public void redraw()
+    {
+        if (fullRedraw)
+        {
+            for (int y = 0; y < grid.getHeight(); y++)
+            {
+                for (int x = 0; x < grid.getWidth(); x++)
+                {
+                    drawTile(x, y);
+                }
+            }
+            fullRedraw = false;
+        }
+        else
+        {
+            for (int i = 0; i < grid.getDirtyRowCount(); i++)
+            {
+                int y = grid.getDirtyRow(i);
+                for (long mask = grid.getDirtyMask(y); mask != 0; mask &= mask
+                        - 1)
+                {
+                    drawTile(Long.numberOfTrailingZeros(mask), y);
+                }
+            }
+        }
+        grid.clearDirtyCells();
+    }
+
+    /**
+     * Zeichnet eine Kachel neu, falls sich ihr Block geändert hat. Wurde eine
+     * Kachel geleert und wieder mit demselben Block belegt, wird sie nicht neu
+     * gezeichnet.
+     *
+     * @param x Die x-Koordinate der Kachel im Gitter.
+     * @param y Die y-Koordinate der Kachel im Gitter.
+     */
+    private void drawTile(int x, int y)
+    {
+        String name = grid.getName(x, y);
+        if (Objects.equals(name, drawn[y][x]))
+        {
+            return;
+        }
+        drawn[y][x] = name;
+        // Im Bild liegt die Zeile 0 oben, im Gitter unten.
+        int pixelX = x * TILE_SIZE;
+        int pixelY = (grid.getHeight() - 1 - y) * TILE_SIZE;
+        if (name == null)
+        {
+            raster.setRect(pixelX, pixelY, emptyTile);
+        }
+        else
+        {
+            raster.setRect(pixelX, pixelY, getTile(name));
+        }
+    }
+
+    /**
+     * Leert eine Kachel, ohne die zuletzt gezeichneten Namen zu beachten.
+     */
+    private void drawEmptyTile(int x, int y)
+    {
+        raster.setRect(x * TILE_SIZE, (grid.getHeight() - 1 - y) * TILE_SIZE,
+                emptyTile);
+    }
+
+    /**
+     * Gibt das Raster mit den Farbindizes eines Blocks zurück.
+     *
+     * @param name Der Name des Blocks, z. B. {@code "L"} oder
+     *             {@code "I_h_left"}.
+     */
+    private Raster getTile(String name)
+    {
+        return tiles.computeIfAbsent(name,
+                key -> Image.getIndexed("blocks/" + key + ".png").getRaster());
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2024 Josef Friedrich and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.pirckheimer_gymnasium.tetris.tetrominos;
+
+/**
+ * Ein unveränderlicher Zustand eines {@link Grid Blockgitters}.
+ *
+ * <p>
+ * Ein Schnappschuss enthält keine {@link Block Blöcke}, sondern nur deren Namen
+ * und die Belegungsmasken der Zeilen. Die Zeilen werden mit dem Blockgitter
+ * geteilt: Erst wenn das Gitter eine Zeile nach dem Schnappschuss verändert,
+ * kopiert es diese eine Zeile (copy-on-write). Ein Schnappschuss kostet daher
+ * nur eine Kopie der Zeilenreferenzen und nicht eine Kopie aller Blöcke.
+ * </p>
+ *
+ * @see Grid#snapshot()
+ * @see Grid#restore(GridSnapshot)
+ *
+ * @author Josef Friedrich
+ */
+public final class GridSnapshot
+{
+    /**
+     * Die Namen der Blöcke zeilenweise, also {@code names[y][x]}. Eine leere
+     * Koordinate hat den Wert {@code null}. Die Zeilen dürfen weder hier noch
+     * im Gitter verändert werden, solange sie geteilt sind.
+     */
+    final String[][] names;
+
+    /**
+     * Die Belegung der Zeilen als Bitmasken.
+     */
+    final long[] rows;
+
+    /**
+     * Der Zobrist-Hashwert der Belegung.
+     */
+    final long hash;
+
+    /**
+     * @param names Die zeilenweise gespeicherten Blocknamen. Das äußere Feld
+     *              wird übernommen und darf nicht mehr verändert werden.
+     * @param rows  Die Belegung der Zeilen als Bitmasken. Das Feld wird
+     *              übernommen und darf nicht mehr verändert werden.
+     * @param hash  Der Zobrist-Hashwert der Belegung.
+     */
+    GridSnapshot(String[][] names, long[] rows, long hash)
+    {
+        this.names = names;
+        this.rows = rows;
+        this.hash = hash;
+    }
+
+    /**
+     * Gibt die Breite des gespeicherten Blockgitters zurück.
+     *
+     * @return Die Breite des Blockgitters.
+     */
+    public int getWidth()
+    {
+        return names[0].length;
+    }
+
+    /**
+     * Gibt die Höhe des gespeicherten Blockgitters zurück.
+     *
+     * @return Die Höhe des Blockgitters.
+     */
+    public int getHeight()
+    {
+        return names.length;
+    }
+
+    /**
+     * Überprüft, ob die angegebene Koordinate im gespeicherten Zustand besetzt
+     * ist.
+     *
+     * @param x Die x-Koordinate der zu überprüfenden Position.
+     * @param y Die y-Koordinate der zu überprüfenden Position.
+     *
+     * @return Wahr, wenn die Koordinate besetzt ist, sonst falsch.
+     */
+    public boolean isTaken(int x, int y)
+    {
+        return x < 0 || x >= getWidth() || y < 0 || y >= getHeight()
+                || (rows[y] & 1L << x) != 0;
+    }
+
+    /**
+     * Gibt die Belegung einer Zeile als Bitmaske zurück.
+     *
+     * @param y Die y-Koordinate ({@code 0} ist die unterste Zeile).
+     *
+     * @return Eine Bitmaske, in der das Bit {@code x} gesetzt ist, wenn die
+     *         Koordinate {@code (x, y)} besetzt ist.
+     */
+    public long getRowMask(int y)
+    {
+        return rows[y];
+    }
+
+    /**
+     * Gibt den Namen des Blocks an einer Koordinate zurück.
+     *
+     * @param x Die x-Koordinate.
+     * @param y Die y-Koordinate.
+     *
+     * @return Der Name des Blocks, z. B. {@code "L"}, oder {@code null}, wenn
+     *         die Koordinate leer ist.
+     */
+    public String getName(int x, int y)
+    {
+        return names[y][x];
+    }
+
+    /**
+     * Gibt den Zobrist-Hashwert der gespeicherten Belegung zurück.
+     *
+     * @return Der Zobrist-Hashwert, wie ihn {@link Grid#getHash()} zum
+     *         Zeitpunkt des Schnappschusses geliefert hat.
+     */
+    public long getHash()
+    {
+        return hash;
+    }
+}
@@ -25,38 +25,39 @@ import de.pirckheimer_gymnasium.engine_pi.Scene;
  */
 class I extends Tetromino
 {
-    public I(Scene scene, Grid grid, int x, int y)
-    {
-        super(scene, grid, "I", x, y);
-        addBlock(0, x, y);
-        addBlock(1, x - 1, y);
-        addBlock(2, x + 1, y);
-        addBlock(3, x + 2, y);
-    }
+    /**
+     * Die Abstände der Blöcke vom Drehpunkt in den vier Drehungen und die
+     * Ausweichverschiebungen.
+     */
+    static final Shape SHAPE = new Shape(new int[][][] {
+            // 0
+            {
+                    { 0, 0 },
+                    { -1, 0 },
+                    { 1, 0 },
+                    { 2, 0 } },
+            // 1
+            {
+                    { 0, 0 },
+                    { 0, -1 },
+                    { 0, 1 },
+                    { 0, 2 } },
+            // 2
+            {
+                    { 0, 0 },
+                    { -1, 0 },
+                    { 1, 0 },
+                    { 2, 0 } },
+            // 3
+            {
+                    { 0, 0 },
+                    { 0, -1 },
+                    { 0, 1 },
+                    { 0, 2 } } },
+            Shape.KICKS_I);
 
-    protected void doRotation()
+    public I(Scene scene, Grid grid, int x, int y)
     {
-        switch (rotation)
-        {
-        // 3 -> 0
-        // 1 -> 2
-        case 0:
-        case 2:
-            moveBlock(0, 0, 0);
-            moveBlock(1, -1, 1);
-            moveBlock(2, 1, -1);
-            moveBlock(3, 2, -2);
-            break;
-
-        // 0 -> 1
-        // 2 -> 3
-        case 1:
-        case 3:
-            moveBlock(0, 0, 0);
-            moveBlock(1, 1, -1);
-            moveBlock(2, -1, 1);
-            moveBlock(3, -2, 2);
-            break;
-        }
+        super(scene, grid, "I", SHAPE, x, y);
     }
 }
@@ -25,32 +25,20 @@ class IDeluxe extends Tetromino
 {
     public IDeluxe(Scene scene, Grid grid, int x, int y)
     {
-        super(scene, grid, "I", x, y);
+        super(scene, grid, "I", I.SHAPE, x, y);
         // addBlock(0, "I_h_center", "I_v_center", x, y);
         // addBlock(1, "I_h_left", "I_v_bottom", x - 1, y);
         // addBlock(2, "I_h_center", "I_v_center", x + 1, y);
         // addBlock(3, "I_h_right", "I_v_top", x + 2, y);
     }
 
-    protected void doRotation()
+    /**
+     * Die Blöcke der Deluxe-Variante sind noch nicht umgesetzt. Damit der
+     * Konstruktor der Oberklasse keine gewöhnlichen Blöcke platziert, wird hier
+     * wie bisher kein Block erzeugt.
+     */
+    @Override
+    protected void addBlock(int index, int x, int y)
     {
-        switch (rotation)
-        {
-        case 0:
-        case 2:
-            moveBlock(0, 0, 0);
-            moveBlock(1, -1, 1);
-            moveBlock(2, 1, -1);
-            moveBlock(3, 2, -2);
-            break;
-
-        case 1:
-        case 3:
-            moveBlock(0, 0, 0);
-            moveBlock(1, 1, -1);
-            moveBlock(2, -1, 1);
-            moveBlock(3, -2, 2);
-            break;
-        }
     }
 }
@@ -25,17 +25,39 @@ import de.pirckheimer_gymnasium.engine_pi.Scene;
  */
 class O extends Tetromino
 {
-    public O(Scene scene, Grid grid, int x, int y)
-    {
-        super(scene, grid, "O", x, y);
-        addBlock(0, x, y);
-        addBlock(1, x + 1, y);
-        addBlock(2, x, y - 1);
-        addBlock(3, x + 1, y - 1);
-    }
+    /**
+     * Die Abstände der Blöcke vom Drehpunkt in den vier Drehungen und die
+     * Ausweichverschiebungen.
+     */
+    private static final Shape SHAPE = new Shape(new int[][][] {
+            // 0
+            {
+                    { 0, 0 },
+                    { 1, 0 },
+                    { 0, -1 },
+                    { 1, -1 } },
+            // 1
+            {
+                    { 0, 0 },
+                    { 1, 0 },
+                    { 0, -1 },
+                    { 1, -1 } },
+            // 2
+            {
+                    { 0, 0 },
+                    { 1, 0 },
+                    { 0, -1 },
+                    { 1, -1 } },
+            // 3
+            {
+                    { 0, 0 },
+                    { 1, 0 },
+                    { 0, -1 },
+                    { 1, -1 } } },
+            Shape.NO_KICKS);
 
-    protected void doRotation()
+    public O(Scene scene, Grid grid, int x, int y)
     {
-        // keine Rotation notwendig bei O
+        super(scene, grid, "O", SHAPE, x, y);
     }
 }
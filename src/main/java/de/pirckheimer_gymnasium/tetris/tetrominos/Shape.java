@@ -0,0 +1,330 @@
+/*
+ * Copyright (c) 2024 Josef Friedrich and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.pirckheimer_gymnasium.tetris.tetrominos;
+
+/**
+ * Die Form eines Tetrominos in allen vier Drehungen.
+ *
+ * <p>
+ * Für jede Drehung wird gespeichert, um wie viele Koordinaten jeder der vier
+ * Blöcke vom Drehpunkt, also dem Block mit der Indexnummer 0, entfernt ist.
+ * Eine Drehung und die Berechnung der Zielkoordinaten einer Drehung sind damit
+ * ein bloßes Nachschlagen in einer Tabelle.
+ * </p>
+ *
+ * <p>
+ * Zusätzlich wird für jede Drehung die Belegung jeder Zeile als Bitmaske
+ * vorberechnet. Ob ein Tetromino in einer Drehung an eine Position passt, kann
+ * so mit einer Maske pro Zeile gegen die Bitmasken des {@link Grid
+ * Blockgitters} geprüft werden.
+ * </p>
+ *
+ * <p>
+ * Für jede Drehung gibt es außerdem eine Tabelle mit Ausweichverschiebungen
+ * (wall kicks). Ist eine Drehung an Ort und Stelle blockiert, so werden diese
+ * Verschiebungen der Reihe nach ausprobiert.
+ * </p>
+ *
+ * @author Josef Friedrich
+ */
+final class Shape
+{
+    /**
+     * Die Anzahl der Drehungen, die ein Tetromino einnehmen kann.
+     */
+    static final int ROTATIONS = 4;
+
+    /**
+     * Die Ausweichverschiebungen der J-, L-, S-, T- und Z-Tetrominos als Paare
+     * {@code dX, dY}: erst seitlich, dann nach oben, zuletzt nach unten. Sie
+     * gelten für jede Drehung.
+     */
+    static final int[][] KICKS = { { 0, 0, -1, 0, 1, 0, 0, 1, 0, -1 },
+            { 0, 0, -1, 0, 1, 0, 0, 1, 0, -1 },
+            { 0, 0, -1, 0, 1, 0, 0, 1, 0, -1 },
+            { 0, 0, -1, 0, 1, 0, 0, 1, 0, -1 } };
+
+    /**
+     * Die Ausweichverschiebungen des I-Tetrominos als Paare {@code dX, dY}. Aus
+     * der waagrechten Lage wird zuerst senkrecht, aus der senkrechten Lage
+     * zuerst waagrecht ausgewichen, bei Bedarf auch um zwei Blöcke.
+     */
+    static final int[][] KICKS_I = { { 0, 0, 0, 1, 0, -1, 0, 2, -1, 0, 1, 0 },
+            { 0, 0, 1, 0, -1, 0, -2, 0, 2, 0 },
+            { 0, 0, 0, 1, 0, -1, 0, 2, -1, 0, 1, 0 },
+            { 0, 0, 1, 0, -1, 0, -2, 0, 2, 0 } };
+
+    /**
+     * Das O-Tetromino sieht in allen Drehungen gleich aus und muss nie
+     * ausweichen.
+     */
+    static final int[][] NO_KICKS = { { 0, 0 }, { 0, 0 }, { 0, 0 }, { 0, 0 } };
+
+    /**
+     * Die x-Abstände der Blöcke vom Drehpunkt, also
+     * {@code dX[rotation][index]}.
+     */
+    private final int[][] dX;
+
+    /**
+     * Die y-Abstände der Blöcke vom Drehpunkt, also
+     * {@code dY[rotation][index]}.
+     */
+    private final int[][] dY;
+
+    /**
+     * Der Abstand, um den der y-Abstand eines Blocks verschoben wird, um den
+     * Index in {@link #rowMasks} zu erhalten.
+     */
+    private static final int ROW_OFFSET = 2;
+
+    /**
+     * Die Belegung der Zeilen als Bitmasken, also
+     * {@code rowMasks[rotation][dY + ROW_OFFSET]}. Das Bit {@code 0} steht für
+     * den kleinsten x-Abstand der jeweiligen Drehung.
+     */
+    private final long[][] rowMasks;
+
+    /**
+     * Der kleinste x-Abstand eines Blocks in jeder Drehung.
+     */
+    private final int[] minDX;
+
+    /**
+     * Der größte x-Abstand eines Blocks in jeder Drehung.
+     */
+    private final int[] maxDX;
+
+    /**
+     * Der kleinste y-Abstand eines Blocks in jeder Drehung.
+     */
+    private final int[] minDY;
+
+    /**
+     * Der größte y-Abstand eines Blocks in jeder Drehung.
+     */
+    private final int[] maxDY;
+
+    /**
+     * Die Ausweichverschiebungen der Rechtsdrehung aus jeder Drehung als Paare
+     * {@code dX, dY}, also {@code kicks[rotation][2 * n]} für die
+     * x-Verschiebung der {@code n}-ten Ausweichverschiebung.
+     */
+    private final int[][] kicks;
+
+    /**
+     * @param offsets Für jede der vier Drehungen die Abstände der vier Blöcke
+     *                vom Drehpunkt als Paare {@code {dX, dY}}, also
+     *                {@code offsets[rotation][index][0]} für den x-Abstand.
+     * @param kicks   Für jede der vier Drehungen die Ausweichverschiebungen der
+     *                Rechtsdrehung als Paare {@code dX, dY}. Die erste
+     *                Verschiebung muss {@code 0, 0} sein.
+     */
+    Shape(int[][][] offsets, int[][] kicks)
+    {
+        if (offsets.length != ROTATIONS || kicks.length != ROTATIONS)
+        {
+            throw new RuntimeException(
+                    "Eine Form muss für jede der vier Drehungen angegeben werden.");
+        }
+        for (int[] rotationKicks : kicks)
+        {
+            if (rotationKicks.length < 2 || rotationKicks.length % 2 != 0
+                    || rotationKicks[0] != 0 || rotationKicks[1] != 0)
+            {
+                throw new RuntimeException(
+                        "Die erste Ausweichverschiebung muss 0, 0 sein.");
+            }
+        }
+        this.kicks = kicks;
+        dX = new int[ROTATIONS][4];
+        dY = new int[ROTATIONS][4];
+        rowMasks = new long[ROTATIONS][2 * ROW_OFFSET + 1];
+        minDX = new int[ROTATIONS];
+        maxDX = new int[ROTATIONS];
+        minDY = new int[ROTATIONS];
+        maxDY = new int[ROTATIONS];
+        for (int rotation = 0; rotation < ROTATIONS; rotation++)
+        {
+            if (offsets[rotation].length != 4)
+            {
+                throw new RuntimeException(
+                        "Eine Form besteht aus genau vier Blöcken.");
+            }
+            for (int index = 0; index < 4; index++)
+            {
+                dX[rotation][index] = offsets[rotation][index][0];
+                dY[rotation][index] = offsets[rotation][index][1];
+            }
+            minDX[rotation] = maxDX[rotation] = dX[rotation][0];
+            minDY[rotation] = maxDY[rotation] = dY[rotation][0];
+            for (int index = 1; index < 4; index++)
+            {
+                minDX[rotation] = Math.min(minDX[rotation],
+                        dX[rotation][index]);
+                maxDX[rotation] = Math.max(maxDX[rotation],
+                        dX[rotation][index]);
+                minDY[rotation] = Math.min(minDY[rotation],
+                        dY[rotation][index]);
+                maxDY[rotation] = Math.max(maxDY[rotation],
+                        dY[rotation][index]);
+            }
+            if (minDY[rotation] < -ROW_OFFSET || maxDY[rotation] > ROW_OFFSET)
+            {
+                throw new RuntimeException(
+                        "Ein Block darf höchstens zwei Zeilen vom Drehpunkt entfernt sein.");
+            }
+            for (int index = 0; index < 4; index++)
+            {
+                int row = dY[rotation][index] + ROW_OFFSET;
+                int bit = dX[rotation][index] - minDX[rotation];
+                rowMasks[rotation][row] |= 1L << bit;
+            }
+        }
+    }
+
+    /**
+     * Gibt den x-Abstand eines Blocks vom Drehpunkt zurück.
+     *
+     * @param rotation Die Drehung ({@code 0} bis {@code 3}).
+     * @param index    Die Indexnummer des Blocks.
+     *
+     * @return Der x-Abstand des Blocks vom Drehpunkt.
+     */
+    int getDX(int rotation, int index)
+    {
+        return dX[rotation][index];
+    }
+
+    /**
+     * Gibt den y-Abstand eines Blocks vom Drehpunkt zurück.
+     *
+     * @param rotation Die Drehung ({@code 0} bis {@code 3}).
+     * @param index    Die Indexnummer des Blocks.
+     *
+     * @return Der y-Abstand des Blocks vom Drehpunkt.
+     */
+    int getDY(int rotation, int index)
+    {
+        return dY[rotation][index];
+    }
+
+    /**
+     * Gibt die Belegung einer Zeile der Form als Bitmaske zurück.
+     *
+     * @param rotation Die Drehung ({@code 0} bis {@code 3}).
+     * @param dY       Der y-Abstand der Zeile vom Drehpunkt.
+     *
+     * @return Eine Bitmaske, deren Bit {@code 0} dem kleinsten x-Abstand
+     *         ({@link #getMinDX(int)}) entspricht, oder {@code 0}, wenn die
+     *         Zeile keinen Block enthält.
+     */
+    long getRowMask(int rotation, int dY)
+    {
+        int index = dY + ROW_OFFSET;
+        if (index < 0 || index >= rowMasks[rotation].length)
+        {
+            return 0;
+        }
+        return rowMasks[rotation][index];
+    }
+
+    /**
+     * @param rotation Die Drehung ({@code 0} bis {@code 3}).
+     *
+     * @return Der kleinste x-Abstand eines Blocks vom Drehpunkt.
+     */
+    int getMinDX(int rotation)
+    {
+        return minDX[rotation];
+    }
+
+    /**
+     * @param rotation Die Drehung ({@code 0} bis {@code 3}).
+     *
+     * @return Der größte x-Abstand eines Blocks vom Drehpunkt.
+     */
+    int getMaxDX(int rotation)
+    {
+        return maxDX[rotation];
+    }
+
+    /**
+     * @param rotation Die Drehung ({@code 0} bis {@code 3}).
+     *
+     * @return Der kleinste y-Abstand eines Blocks vom Drehpunkt.
+     */
+    int getMinDY(int rotation)
+    {
+        return minDY[rotation];
+    }
+
+    /**
+     * @param rotation Die Drehung ({@code 0} bis {@code 3}).
+     *
+     * @return Der größte y-Abstand eines Blocks vom Drehpunkt.
+     */
+    int getMaxDY(int rotation)
+    {
+        return maxDY[rotation];
+    }
+
+    /**
+     * @param rotation Die Drehung, aus der heraus gedreht wird.
+     *
+     * @return Die Anzahl der Ausweichverschiebungen einschließlich der
+     *         Verschiebung {@code {0, 0}}.
+     */
+    int getKickCount(int rotation)
+    {
+        return kicks[rotation].length / 2;
+    }
+
+    /**
+     * @param rotation Die Drehung, aus der heraus gedreht wird.
+     * @param n        Die Nummer der Ausweichverschiebung.
+     *
+     * @return Die Verschiebung in x-Richtung.
+     */
+    int getKickX(int rotation, int n)
+    {
+        return kicks[rotation][2 * n];
+    }
+
+    /**
+     * @param rotation Die Drehung, aus der heraus gedreht wird.
+     * @param n        Die Nummer der Ausweichverschiebung.
+     *
+     * @return Die Verschiebung in y-Richtung.
+     */
+    int getKickY(int rotation, int n)
+    {
+        return kicks[rotation][2 * n + 1];
+    }
+
+    /**
+     * Gibt die Drehung zurück, die auf eine Rechtsdrehung folgt.
+     *
+     * @param rotation Die aktuelle Drehung.
+     *
+     * @return Die nächste Drehung ({@code 0} bis {@code 3}).
+     */
+    static int next(int rotation)
+    {
+        return rotation > 2 ? 0 : rotation + 1;
+    }
+}
@@ -39,6 +39,17 @@ public class SoftDrop
         this.tetromino = tetromino;
     }
 
+    /**
+     * Verschiebt den Startpunkt nach oben, wenn das Tetromino durch eine
+     * Drehung, z. B. eine Ausweichverschiebung nach oben, höher liegt als zu
+     * Beginn der Soft-Drop-Bewegung. So werden nur Zeilen gezählt, um die das
+     * Tetromino tatsächlich gefallen ist.
+     */
+    public void update()
+    {
+        y = Math.max(y, tetromino.getY());
+    }
+
     /**
      * Gibt die Distanz in der Zeilenanzahl an, wie weit das Tetromino mittels
      * Soft-Drop nach unten bewegt wurde.
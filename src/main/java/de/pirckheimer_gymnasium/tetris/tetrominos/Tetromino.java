@@ -37,6 +37,11 @@ public abstract class Tetromino
     /**
      * Eine Referenz auf die {@link Scene Szene}, in der der Tetromino erstellt
      * wurde. Diese Referenz wird an die Block-Klasse weitergereicht.
+     *
+     * <p>
+     * Ist die Referenz {@code null}, so wird das Tetromino nicht angezeigt und
+     * kann ohne Fenster, z. B. in einer Simulation, verwendet werden.
+     * </p>
      */
     protected Scene scene;
 
@@ -58,31 +63,54 @@ public abstract class Tetromino
 
     protected Block[] blocks;
 
+    /**
+     * Die Form des Tetrominos, also die Abstände der Blöcke vom Drehpunkt in
+     * allen vier Drehungen.
+     */
+    protected final Shape shape;
+
     /**
      * Die Rotation des Tetrominos.
      */
     public int rotation;
 
+    /**
+     * Der {@link Zobrist Zobrist-Hashwert} aus Art, Drehung und Position des
+     * Tetrominos. Er wird bei jeder Bewegung und Drehung nachgeführt.
+     */
+    protected long hash;
+
     /**
      * Erzeugt ein Tetromino durch Angabe des Names.
      *
-     * @param scene Die Szene, in der das Tetromino eingefügt werden soll.
+     * @param scene Die Szene, in der das Tetromino eingefügt werden soll. Kann
+     *              {@code null} sein, dann wird das Tetromino nicht angezeigt.
      * @param grid  Das Blockgitter, in das das Tetromino eingefügt werden soll.
      * @param name  Der Name des Tetrominos, zum Beispiel J, L, etc. Die
      *              Tetrominos sind nach Großbuchstaben benannt.
+     * @param shape Die Form des Tetrominos in allen vier Drehungen.
      * @param x     Die x-Koordinate (entspricht der Koordinate des 0-ten
      *              Blocks), an der das Tetromino eingefügt werden soll.
      * @param y     Die y-Koordinate (entspricht der Koordinate des 0-ten
      *              Blocks), an der das Tetromino eingefügt werden soll.
      */
-    public Tetromino(Scene scene, Grid grid, String name, int x, int y)
+    Tetromino(Scene scene, Grid grid, String name, Shape shape, int x, int y)
     {
         this.scene = scene;
         this.name = name;
         this.grid = grid;
+        this.shape = shape;
         this.x = x;
         this.y = y;
         blocks = new Block[4];
+        for (int index = 0; index < blocks.length; index++)
+        {
+            addBlock(index, x + shape.getDX(0, index),
+                    y + shape.getDY(0, index));
+        }
+        hash = Zobrist.key(Zobrist.KIND, name.hashCode())
+                ^ Zobrist.key(Zobrist.ROTATION, 0) ^ Zobrist.key(Zobrist.X, x)
+                ^ Zobrist.key(Zobrist.Y, y);
     }
 
     /**
@@ -107,6 +135,42 @@ public abstract class Tetromino
         return y;
     }
 
+    /**
+     * Gibt den Zobrist-Hashwert des Tetrominos zurück.
+     *
+     * <p>
+     * Der Hashwert hängt von der Art, der Drehung und der Position des
+     * Tetrominos ab. Zusammen mit {@link Grid#getHash()} ergibt er einen
+     * Schlüssel für den ganzen Spielstand.
+     * </p>
+     *
+     * @return Der Zobrist-Hashwert des Tetrominos.
+     */
+    public long getHash()
+    {
+        return hash;
+    }
+
+    /**
+     * Verschiebt die Position des Tetrominos und führt den Hashwert nach.
+     *
+     * @param dX Delta-Wert der Bewegung in x-Richtung.
+     * @param dY Delta-Wert der Bewegung in y-Richtung.
+     */
+    private void translate(int dX, int dY)
+    {
+        if (dX != 0)
+        {
+            hash ^= Zobrist.key(Zobrist.X, x) ^ Zobrist.key(Zobrist.X, x + dX);
+            x += dX;
+        }
+        if (dY != 0)
+        {
+            hash ^= Zobrist.key(Zobrist.Y, y) ^ Zobrist.key(Zobrist.Y, y + dY);
+            y += dY;
+        }
+    }
+
     /**
      * Fügt einen Block ein.
      *
@@ -117,7 +181,7 @@ public abstract class Tetromino
     protected void addBlock(int index, int x, int y)
     {
         Block block;
-        if (Game.isDebug())
+        if (scene != null && Game.isDebug())
         {
             block = new Block(this.scene, "Debug-" + index, x, y);
         }
@@ -163,16 +227,30 @@ public abstract class Tetromino
     }
 
     /**
-     * Überprüft, ob die gegebene Koordinate im Blockgitter besetzt ist. Dabei
-     * wird ein eigener Block ignoriert.
+     * Überprüft, ob einer der vier Blöcke des Tetrominos auf einer Koordinate
+     * liegt, die im angegebenen Blockgitter bereits besetzt ist.
+     *
+     * <p>
+     * Diese Methode ist für Tetrominos gedacht, die noch nicht in das
+     * Blockgitter eingefügt wurden, z. B. um festzustellen, ob ein neues
+     * Tetromino noch Platz hat.
+     * </p>
+     *
+     * @param grid Das Blockgitter, mit dem die Blöcke verglichen werden.
+     *
+     * @return Wahr, wenn mindestens ein Block auf einer besetzten Koordinate
+     *         liegt.
      */
-    protected boolean isGridTaken(int x, int y)
+    public boolean overlaps(Grid grid)
     {
-        if (grid == null)
+        for (Block block : blocks)
         {
-            return false;
+            if (grid.isTaken(block.getX(), block.getY()))
+            {
+                return true;
+            }
         }
-        return !isOwnBlockPosition(x, y) && grid.isTaken(x, y);
+        return false;
     }
 
     /**
@@ -206,6 +284,7 @@ public abstract class Tetromino
         {
             return;
         }
+        grid.resetAffectedRows();
         for (Block block : blocks)
         {
             grid.addBlock(block);
@@ -232,16 +311,31 @@ public abstract class Tetromino
         }
     }
 
-    protected boolean checkLeft()
+    /**
+     * Verschiebt das Tetromino, ohne zu prüfen, ob dort Platz ist.
+     *
+     * <p>
+     * Die Blöcke werden in einem Schritt im Blockgitter verschoben. Weder das
+     * Blockgitter noch die Blöcke erzeugen dabei neue Objekte.
+     * </p>
+     *
+     * @param dX Delta-Wert der Bewegung in x-Richtung.
+     * @param dY Delta-Wert der Bewegung in y-Richtung.
+     */
+    private void moveBy(int dX, int dY)
     {
-        for (Block block : blocks)
+        if (grid == null)
         {
-            if (isGridTaken(block.getX() - 1, block.getY()))
+            for (Block block : blocks)
             {
-                return false;
+                block.moveBy(dX, dY);
             }
         }
-        return true;
+        else
+        {
+            grid.moveBlocks(blocks, dX, dY);
+        }
+        translate(dX, dY);
     }
 
     /**
@@ -251,169 +345,229 @@ public abstract class Tetromino
      */
     public boolean moveLeft()
     {
-        if (!checkLeft())
+        if (!fits(rotation, x - 1, y))
         {
             return false;
         }
-        removeBlocksFromGrid();
-        for (Block block : blocks)
-        {
-            block.moveLeft();
-        }
-        addBlocksToGrid();
-        x--;
-        assert x == blocks[0].getX();
+        moveBy(-1, 0);
         return true;
     }
 
-    protected boolean checkRight()
+    /**
+     * Bewegt das Tetromino um eine Spalte nach rechts.
+     *
+     * @return Wahr, wenn sich das Tetromino bewegen konnte, sonst falsch.
+     */
+    public boolean moveRight()
     {
-        for (Block block : blocks)
+        if (!fits(rotation, x + 1, y))
         {
-            if (isGridTaken(block.getX() + 1, block.getY()))
-            {
-                return false;
-            }
+            return false;
         }
+        moveBy(1, 0);
         return true;
     }
 
     /**
-     * Bewegt das Tetromino um eine Spalte nach rechts.
+     * Bewegt das Tetromino um eine Reihe nach unten.
      *
      * @return Wahr, wenn sich das Tetromino bewegen konnte, sonst falsch.
      */
-    public boolean moveRight()
+    public boolean moveDown()
     {
-        if (!checkRight())
+        if (!fits(rotation, x, y - 1))
         {
             return false;
         }
-        removeBlocksFromGrid();
-        for (Block block : blocks)
-        {
-            block.moveRight();
-        }
-        addBlocksToGrid();
-        x++;
-        assert x == blocks[0].getX();
+        moveBy(0, -1);
         return true;
     }
 
-    protected boolean checkDown()
+    /**
+     * Berechnet die Fallhöhe bei aus dem Blockgitter entfernten Blöcken.
+     */
+    private int calculateDropDistance()
     {
+        if (grid == null)
+        {
+            return 0;
+        }
+        int distance = Integer.MAX_VALUE;
         for (Block block : blocks)
         {
-            if (isGridTaken(block.getX(), block.getY() - 1))
-            {
-                return false;
-            }
+            distance = Math.min(distance,
+                    grid.getDropDistance(block.getX(), block.getY()));
         }
-        return true;
+        return distance;
     }
 
     /**
-     * Bewegt das Tetromino um eine Reihe nach unten.
+     * Berechnet, um wie viele Zeilen das Tetromino nach unten fallen kann, bis
+     * es aufsetzt.
      *
-     * @return Wahr, wenn sich das Tetromino bewegen konnte, sonst falsch.
+     * @return Die Anzahl der Zeilen, um die das Tetromino fallen kann.
      */
-    public boolean moveDown()
+    public int getDropDistance()
     {
-        if (!checkDown())
-        {
-            return false;
-        }
         removeBlocksFromGrid();
-        for (Block block : blocks)
+        int distance = calculateDropDistance();
+        addBlocksToGrid();
+        return distance;
+    }
+
+    /**
+     * Lässt das Tetromino in einem Schritt so weit nach unten fallen, bis es
+     * aufsetzt (hard drop).
+     *
+     * <p>
+     * Statt das Tetromino Zeile für Zeile mit {@link #moveDown()} zu bewegen,
+     * wird die Fallhöhe einmal aus den Spaltenhöhen des Blockgitters berechnet
+     * und die Blöcke werden nur einmal verschoben.
+     * </p>
+     *
+     * @return Die Anzahl der Zeilen, um die das Tetromino gefallen ist.
+     */
+    public int drop()
+    {
+        removeBlocksFromGrid();
+        int distance = calculateDropDistance();
+        if (distance > 0)
         {
-            block.moveDown();
+            for (Block block : blocks)
+            {
+                block.moveBy(0, -distance);
+            }
+            translate(0, -distance);
         }
         addBlocksToGrid();
-        y--;
         assert y == blocks[0].getY();
-        return true;
+        return distance;
     }
 
     /**
-     * Überprüft, ob sich das Tetromino drehen kann.
-     *
-     * <p>
-     * Achtung das ist eine naive Implementation! Wir überprüfen einen 3x3-Block
-     * um den Mittelpunkt des Tetromino.
+     * Überprüft, ob das Tetromino in einer bestimmten Drehung an eine bestimmte
+     * Position passt.
      *
      * <p>
-     * Probleme dieser Implementation:
-     *
-     * <ul>
-     * <item>Das I-Tetromino schaut einen Block über den 3x3-Block
-     * hinaus.</item>
+     * Es werden nur die Zielkoordinaten der vier Blöcke geprüft, und zwar
+     * zeilenweise mit den vorberechneten Bitmasken der {@link Shape Form}.
+     * Koordinaten, die das Tetromino momentan selbst belegt, gelten als frei,
+     * da die eigenen Blöcke sie bei der Bewegung verlassen.
+     * </p>
      *
-     * <item>In den 3x3-Feld dürfen sind an gewissen Position Blöcke befinden
-     * und das Tetromino kann sich trotzdem bewegen.</item>
-     * </ul>
+     * @param rotation Die zu prüfende Drehung.
+     * @param x        Die zu prüfende x-Koordinate des Drehpunkts.
+     * @param y        Die zu prüfende y-Koordinate des Drehpunkts.
      *
-     * @return
+     * @return Wahr, wenn alle Zielkoordinaten innerhalb des Gitters liegen und
+     *         frei sind.
      */
-    private boolean checkRotation()
+    protected boolean fits(int rotation, int x, int y)
     {
-        for (int x = getX() - 1; x <= getX() + 1; x++)
+        if (grid == null)
+        {
+            return true;
+        }
+        int left = x + shape.getMinDX(rotation);
+        if (left < 0 || x + shape.getMaxDX(rotation) >= grid.getWidth())
         {
-            for (int y = getY() - 1; y <= getY() + 1; y++)
+            return false;
+        }
+        int ownLeft = this.x + shape.getMinDX(this.rotation);
+        for (int dY = shape.getMinDY(rotation); dY <= shape
+                .getMaxDY(rotation); dY++)
+        {
+            int row = y + dY;
+            long mask = shape.getRowMask(rotation, dY) << left;
+            long own = shape.getRowMask(this.rotation, row - this.y) << ownLeft;
+            if (grid.isTaken(mask & ~own, row))
             {
-                if (isGridTaken(x, y))
-                {
-                    return false;
-                }
+                return false;
             }
         }
         return true;
     }
 
     /**
-     * Führt die eigentliche Rotation des Tetrominos durch, d. h. sie bewegt
-     * einzelnen Blöcke an neue Positionen.
+     * Führt eine Rechtsdrehung ohne Ausweichverschiebungen durch.
      *
-     * Es handelt sich um eine abstrakte Einschubmethode, die nach dem
-     * Schablonenmethode-Entwurfsmuster (engl. template method) von den
-     * Unterklassen - den einzelnen Tetrominos - implementiert werden müssen.
+     * @return Gibt wahr zurück, wenn sind das Tetromino drehen konnte, sonst
+     *         falsch.
      *
-     * @see #rotate
+     * @see #rotate(boolean)
      */
-    protected abstract void doRotation();
+    public boolean rotate()
+    {
+        return rotate(false);
+    }
 
     /**
      * Führt eine Rechtsdrehung durch.
      *
      * <p>
-     * Es handelt sich um eine Schablonenmethode (engl. template method) nach
-     * dem gleichnamigen Entwurfsmuster. Diese Methode ruft die abstrakte
-     * Methoden {@link #doRotation()} auf, die erst in den Unterklassen der
-     * einzelnen Tetrominos definiert werden.
+     * Die neuen Positionen der Blöcke werden in der {@link Shape Form} des
+     * Tetrominos nachgeschlagen. Es werden nur die Blöcke bewegt, deren
+     * Position sich durch die Drehung ändert.
      * </p>
      *
-     * @see #doRotation
+     * <p>
+     * Sind Ausweichverschiebungen (wall kicks) eingeschaltet und ist die
+     * Drehung an Ort und Stelle blockiert, so werden die Verschiebungen aus der
+     * Tabelle der Form der Reihe nach ausprobiert. Die erste Verschiebung, bei
+     * der das gedrehte Tetromino Platz hat, wird übernommen. Da jeder Versuch
+     * nur einige vorberechnete Bitmasken vergleicht, kosten mehrere Versuche
+     * kaum mehr als einer.
+     * </p>
+     *
+     * @param wallKicks Ob Ausweichverschiebungen ausprobiert werden sollen.
      *
      * @return Gibt wahr zurück, wenn sind das Tetromino drehen konnte, sonst
      *         falsch.
      */
-    public boolean rotate()
+    public boolean rotate(boolean wallKicks)
     {
-        if (!checkRotation())
+        int next = Shape.next(rotation);
+        int kicks = wallKicks ? shape.getKickCount(rotation) : 1;
+        for (int n = 0; n < kicks; n++)
         {
-            return false;
-        }
-        if (rotation > 2)
-        {
-            rotation = 0;
+            int kickX = shape.getKickX(rotation, n);
+            int kickY = shape.getKickY(rotation, n);
+            if (fits(next, x + kickX, y + kickY))
+            {
+                rotateTo(next, kickX, kickY);
+                return true;
+            }
         }
-        else
+        return false;
+    }
+
+    /**
+     * Bewegt die Blöcke in eine neue Drehung, ohne zu prüfen, ob dort Platz
+     * ist.
+     *
+     * @param next  Die neue Drehung.
+     * @param kickX Die Ausweichverschiebung in x-Richtung.
+     * @param kickY Die Ausweichverschiebung in y-Richtung.
+     */
+    private void rotateTo(int next, int kickX, int kickY)
+    {
+        hash ^= Zobrist.key(Zobrist.ROTATION, rotation)
+                ^ Zobrist.key(Zobrist.ROTATION, next);
+        removeBlocksFromGrid();
+        for (int index = 0; index < blocks.length; index++)
         {
-            rotation++;
+            int dX = shape.getDX(next, index) - shape.getDX(rotation, index)
+                    + kickX;
+            int dY = shape.getDY(next, index) - shape.getDY(rotation, index)
+                    + kickY;
+            if (dX != 0 || dY != 0)
+            {
+                moveBlock(index, dX, dY);
+            }
         }
-        removeBlocksFromGrid();
-        doRotation();
+        rotation = next;
+        translate(kickX, kickY);
         addBlocksToGrid();
-        return true;
     }
 
     /**
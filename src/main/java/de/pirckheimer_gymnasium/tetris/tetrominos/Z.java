@@ -25,34 +25,39 @@ import de.pirckheimer_gymnasium.engine_pi.Scene;
  */
 class Z extends Tetromino
 {
-    public Z(Scene scene, Grid grid, int x, int y)
-    {
-        super(scene, grid, "Z", x, y);
-        addBlock(0, x, y);
-        addBlock(1, x - 1, y);
-        addBlock(2, x, y - 1);
-        addBlock(3, x + 1, y - 1);
-    }
+    /**
+     * Die Abstände der Blöcke vom Drehpunkt in den vier Drehungen und die
+     * Ausweichverschiebungen.
+     */
+    private static final Shape SHAPE = new Shape(new int[][][] {
+            // 0
+            {
+                    { 0, 0 },
+                    { -1, 0 },
+                    { 0, -1 },
+                    { 1, -1 } },
+            // 1
+            {
+                    { 0, 0 },
+                    { -1, 0 },
+                    { 0, 1 },
+                    { -1, -1 } },
+            // 2
+            {
+                    { 0, 0 },
+                    { -1, 0 },
+                    { 0, -1 },
+                    { 1, -1 } },
+            // 3
+            {
+                    { 0, 0 },
+                    { -1, 0 },
+                    { 0, 1 },
+                    { -1, -1 } } },
+            Shape.KICKS);
 
-    protected void doRotation()
+    public Z(Scene scene, Grid grid, int x, int y)
     {
-        switch (rotation)
-        {
-        // 0 -> 1
-        // 2 -> 3
-        case 1:
-        case 3:
-            moveBlock(2, 0, 2);
-            moveBlock(3, -2, 0);
-            break;
-
-        // 3 -> 0
-        // 1 -> 2
-        case 0:
-        case 2:
-            moveBlock(2, 0, -2);
-            moveBlock(3, 2, 0);
-            break;
-        }
+        super(scene, grid, "Z", SHAPE, x, y);
     }
 }
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2024 Josef Friedrich and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.pirckheimer_gymnasium.tetris.tetrominos;
+
+/**
+ * Erzeugt die Zufallsschlüssel für das Zobrist-Hashing des Spielstands.
+ *
+ * <p>
+ * Beim Zobrist-Hashing erhält jedes Merkmal eines Spielstands, z. B. eine
+ * besetzte Koordinate oder die Drehung eines Tetrominos, einen zufälligen
+ * 64-Bit-Schlüssel. Der Hashwert des Spielstands ist die XOR-Verknüpfung aller
+ * zutreffenden Schlüssel. Ändert sich ein Merkmal, so wird nur der alte
+ * Schlüssel heraus- und der neue hineinverknüpft, statt den ganzen Spielstand
+ * neu zu berechnen.
+ * </p>
+ *
+ * <p>
+ * Die Schlüssel werden nicht zufällig gezogen, sondern mit der Mischfunktion
+ * von SplitMix64 aus dem Merkmal und seinem Wert berechnet. Gleiche Spielstände
+ * haben daher auch in verschiedenen Programmläufen den gleichen Hashwert.
+ * </p>
+ *
+ * @author Josef Friedrich
+ */
+public final class Zobrist
+{
+    /**
+     * Eine besetzte Koordinate des Blockgitters. Der Wert ist
+     * {@code y * 64 + x}.
+     */
+    public static final int CELL = 1;
+
+    /**
+     * Die Art eines Tetrominos. Der Wert ist der Hashcode des Namens.
+     */
+    public static final int KIND = 2;
+
+    /**
+     * Die Drehung eines Tetrominos.
+     */
+    public static final int ROTATION = 3;
+
+    /**
+     * Die x-Koordinate eines Tetrominos.
+     */
+    public static final int X = 4;
+
+    /**
+     * Die y-Koordinate eines Tetrominos.
+     */
+    public static final int Y = 5;
+
+    /**
+     * Die Nummer des nächsten Tetrominos.
+     */
+    public static final int NEXT = 6;
+
+    private Zobrist()
+    {
+    }
+
+    /**
+     * Berechnet den Schlüssel eines Merkmals.
+     *
+     * @param feature Das Merkmal, z. B. {@link #CELL}.
+     * @param value   Der Wert des Merkmals.
+     *
+     * @return Ein gleichverteilter 64-Bit-Schlüssel.
+     */
+    public static long key(int feature, int value)
+    {
+        long z = ((long) feature << 32 | value & 0xFFFFFFFFL)
+                * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Berechnet den Schlüssel einer besetzten Koordinate.
+     *
+     * @param x Die x-Koordinate.
+     * @param y Die y-Koordinate.
+     *
+     * @return Der Schlüssel der Koordinate.
+     */
+    public static long cell(int x, int y)
+    {
+        return key(CELL, y * Long.SIZE + x);
+    }
+}
@@ -19,6 +19,8 @@ package de.pirckheimer_gymnasium.tetris.text;
 import java.awt.Color;
 import java.awt.image.BufferedImage;
 import java.awt.image.ColorConvertOp;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import de.pirckheimer_gymnasium.engine_pi.Resources;
 import de.pirckheimer_gymnasium.engine_pi.Scene;
@@ -28,9 +30,29 @@ import de.pirckheimer_gymnasium.tetris.Tetris;
 
 /**
  * Eine Glyphe bzw. ein Buchstabe.
+ *
+ * <p>
+ * Die eingefärbten und vergrößerten Bilder der Buchstaben werden in einem Atlas
+ * zwischengespeichert. Jeder Buchstabe wird pro Farbe und Skalierung nur einmal
+ * geladen, umgewandelt und vergrößert. Danach wird beim Schreiben nur noch ein
+ * Bild mit dem fertigen Buchstaben platziert.
+ * </p>
  */
-class Glyph
+public class Glyph
 {
+    /**
+     * Die bereits vorbereiteten Bilder der Buchstaben. Der Schlüssel setzt sich
+     * aus dem Buchstaben, der Farbe und der Skalierung zusammen, siehe
+     * {@link #getKey(char, Color, int)}.
+     */
+    private static final Map<Long, BufferedImage> atlas = new ConcurrentHashMap<>();
+
+    /**
+     * Ein Platzhalter im Atlas für Buchstaben, für die es keine Bilddatei gibt.
+     */
+    private static final BufferedImage MISSING = new BufferedImage(1, 1,
+            BufferedImage.TYPE_INT_ARGB);
+
     /**
      * Eine Referenz auf die {@link Scene Szene}, in der der Buchstabe angezeigt
      * werden soll.
@@ -45,9 +67,75 @@ class Glyph
 
     private Image image;
 
+    /**
+     * Der Schlüssel des Bilds im Atlas, siehe
+     * {@link #getKey(char, Color, int)}.
+     */
+    private final long key;
+
     Glyph(Scene scene, char glyph, Color color, int x, int y)
     {
         this.scene = scene;
+        key = getKey(glyph, color, Tetris.SCALE);
+        BufferedImage bufferedImage = getImage(glyph, color, Tetris.SCALE);
+        if (bufferedImage != null)
+        {
+            image = new Image(bufferedImage, Tetris.SCALE * Tetris.BLOCK_SIZE);
+            image.setPosition(x, y);
+            scene.add(image);
+        }
+    }
+
+    /**
+     * Gibt das eingefärbte und vergrößerte Bild eines Buchstabens aus dem Atlas
+     * zurück. Ist das Bild noch nicht vorhanden, wird es einmalig erzeugt.
+     *
+     * <p>
+     * Das Bild wird von allen Buchstaben mit gleichem Schlüssel geteilt und
+     * darf nicht verändert werden.
+     * </p>
+     *
+     * @param glyph Der Buchstabe.
+     * @param color Die Farbe, die das Schwarz des Ausgangsbilds ersetzt.
+     * @param scale Der Faktor, um den das Bild vergrößert wird.
+     *
+     * @return Das Bild des Buchstabens oder {@code null}, wenn es für den
+     *         Buchstaben keine Bilddatei gibt.
+     */
+    public static BufferedImage getImage(char glyph, Color color, int scale)
+    {
+        BufferedImage image = atlas.computeIfAbsent(getKey(glyph, color, scale),
+                key -> createImage(glyph, color, scale));
+        return image == MISSING ? null : image;
+    }
+
+    /**
+     * Setzt den Schlüssel eines Bilds im Atlas zusammen: die Farbe als
+     * ARGB-Wert in den oberen 32 Bit, darunter die Skalierung und der Buchstabe
+     * mit je 16 Bit.
+     */
+    static long getKey(char glyph, Color color, int scale)
+    {
+        return (long) color.getRGB() << 32 | (scale & 0xFFFFL) << 16 | glyph;
+    }
+
+    /**
+     * Lädt, färbt und vergrößert das Bild eines Buchstabens.
+     *
+     * @return Das Bild oder {@link #MISSING}, wenn es für den Buchstaben keine
+     *         Bilddatei gibt.
+     */
+    private static BufferedImage createImage(char glyph, Color color, int scale)
+    {
+        if (scale == Tetris.SCALE)
+        {
+            BufferedImage baked = de.pirckheimer_gymnasium.tetris.Image
+                    .readBaked(getBakedPath(glyph, color));
+            if (baked != null)
+            {
+                return baked;
+            }
+        }
         BufferedImage bufferedImage = null;
         try
         {
@@ -57,20 +145,36 @@ class Glyph
         {
             // ignore
         }
-        if (bufferedImage != null)
+        if (bufferedImage == null)
         {
-            bufferedImage = convertColorspace(bufferedImage,
-                    BufferedImage.TYPE_INT_ARGB);
-            bufferedImage = ImageUtil.scale(
-                    ImageUtil.replaceColor(bufferedImage, Color.BLACK, color),
-                    Tetris.SCALE);
-            image = new Image(bufferedImage, Tetris.SCALE * Tetris.BLOCK_SIZE);
-            image.setPosition(x, y);
-            scene.add(image);
+            return MISSING;
         }
+        return process(bufferedImage, color, scale);
+    }
+
+    /**
+     * Färbt das Ausgangsbild eines Buchstabens ein und vergrößert es.
+     *
+     * <p>
+     * Diese Methode benötigt keinen Bildschirm und wird auch beim Bauen vom
+     * {@link de.pirckheimer_gymnasium.tetris.Baker} verwendet.
+     * </p>
+     *
+     * @param image Das schwarze Ausgangsbild des Buchstabens.
+     * @param color Die Farbe, die das Schwarz des Ausgangsbilds ersetzt.
+     * @param scale Der Faktor, um den das Bild vergrößert wird.
+     *
+     * @return Ein neues, eingefärbtes und vergrößertes Bild.
+     */
+    public static BufferedImage process(BufferedImage image, Color color,
+            int scale)
+    {
+        image = convertColorspace(image, BufferedImage.TYPE_INT_ARGB);
+        return ImageUtil.scale(
+                ImageUtil.replaceColor(image, Color.BLACK, color), scale);
     }
 
-    private String convertGlyphToImageName(char glyph)
+    private static String convertGlyphToImageName(char glyph)
     {
         switch (glyph)
         {
@@ -91,11 +195,28 @@ class Glyph
         }
     }
 
-    private String getImagePath(char glyph)
+    /**
+     * Gibt den relativen Pfad zum Ausgangsbild eines Buchstabens zurück, z. B.
+     * {@code glyphs/dot.png}.
+     */
+    public static String getImagePath(char glyph)
     {
         return "glyphs/" + convertGlyphToImageName(glyph) + ".png";
     }
 
+    /**
+     * Gibt den relativen Pfad eines beim Bauen vorbereiteten Buchstabens
+     * innerhalb des Ordners
+     * {@link de.pirckheimer_gymnasium.tetris.Image#BAKED_DIRECTORY} zurück. Die
+     * Farbe wird als hexadezimaler ARGB-Wert in den Pfad übernommen, z. B.
+     * {@code glyphs/ff0f380f/dot.png}.
+     */
+    public static String getBakedPath(char glyph, Color color)
+    {
+        return "glyphs/" + Integer.toHexString(color.getRGB()) + "/"
+                + convertGlyphToImageName(glyph) + ".png";
+    }
+
     final private static BufferedImage convertColorspace(BufferedImage image,
             int newType)
     {
@@ -106,6 +227,44 @@ class Glyph
         return image;
     }
 
+    /**
+     * Gibt den Schlüssel des Bilds im Atlas zurück. Zwei Buchstaben mit
+     * gleichem Schlüssel sehen gleich aus und sind daher austauschbar.
+     */
+    long getKey()
+    {
+        return key;
+    }
+
+    /**
+     * Verschiebt den Buchstaben an eine neue Position und blendet ihn ein.
+     *
+     * @param x Die x-Koordinate des linken unteren Ecks.
+     * @param y Die y-Koordinate des linken unteren Ecks.
+     */
+    void show(int x, int y)
+    {
+        if (image == null)
+        {
+            return;
+        }
+        image.setPosition(x, y);
+        image.setVisible(true);
+    }
+
+    /**
+     * Blendet den Buchstaben aus, ohne ihn aus der {@link Scene Szene} zu
+     * entfernen.
+     */
+    void hide()
+    {
+        if (image == null)
+        {
+            return;
+        }
+        image.setVisible(false);
+    }
+
     /**
      * Entfernt den Buchstaben aus der {@link Scene Szene}.
      */
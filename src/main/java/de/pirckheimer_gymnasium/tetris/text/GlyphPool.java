@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2024 Josef Friedrich and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.pirckheimer_gymnasium.tetris.text;
+
+import java.awt.Color;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+import de.pirckheimer_gymnasium.engine_pi.Scene;
+import de.pirckheimer_gymnasium.tetris.Tetris;
+
+/**
+ * Ein Vorrat an ausgeblendeten {@link Glyph Buchstaben}, die beim nächsten
+ * Schreiben wiederverwendet werden.
+ *
+ * <p>
+ * Statt einen Buchstaben aus der {@link Scene Szene} zu entfernen und später
+ * einen neuen zu erzeugen, wird er nur ausgeblendet und im Vorrat abgelegt.
+ * Wird später derselbe Buchstabe in derselben Farbe benötigt, wird er an die
+ * neue Position verschoben und wieder eingeblendet. Der Vorrat nimmt höchstens
+ * {@link #capacity} Buchstaben auf, alle weiteren werden wie bisher aus der
+ * Szene entfernt. So bleibt die Anzahl der Buchstaben auch dann begrenzt, wenn
+ * eine Szene tagelang läuft.
+ * </p>
+ */
+class GlyphPool
+{
+    /**
+     * Eine Referenz auf die {@link Scene Szene}, in der die Buchstaben
+     * angezeigt werden.
+     */
+    private final Scene scene;
+
+    /**
+     * Die Anzahl an Buchstaben, die der Vorrat höchstens aufnimmt.
+     */
+    private final int capacity;
+
+    /**
+     * Die Anzahl an Buchstaben, die sich momentan im Vorrat befinden.
+     */
+    private int size;
+
+    /**
+     * Die ausgeblendeten Buchstaben, geordnet nach ihrem Schlüssel im Atlas.
+     */
+    private final Map<Long, ArrayDeque<Glyph>> glyphs = new HashMap<>();
+
+    /**
+     * @param scene    Eine Referenz auf die {@link Scene Szene}, in der die
+     *                 Buchstaben angezeigt werden.
+     * @param capacity Die Anzahl an Buchstaben, die der Vorrat höchstens
+     *                 aufnimmt.
+     */
+    GlyphPool(Scene scene, int capacity)
+    {
+        if (capacity < 0)
+        {
+            throw new RuntimeException(
+                    "Die Größe des Vorrats darf nicht negativ sein!");
+        }
+        this.scene = scene;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Gibt einen Buchstaben an der angegebenen Position zurück. Liegt ein
+     * passender Buchstabe im Vorrat, wird dieser eingeblendet, sonst wird ein
+     * neuer erzeugt.
+     */
+    Glyph obtain(char glyph, Color color, int x, int y)
+    {
+        ArrayDeque<Glyph> free = glyphs
+                .get(Glyph.getKey(glyph, color, Tetris.SCALE));
+        if (free == null || free.isEmpty())
+        {
+            return new Glyph(scene, glyph, color, x, y);
+        }
+        size--;
+        Glyph result = free.pop();
+        result.show(x, y);
+        return result;
+    }
+
+    /**
+     * Legt einen nicht mehr benötigten Buchstaben in den Vorrat. Ist der Vorrat
+     * voll, wird der Buchstabe aus der {@link Scene Szene} entfernt.
+     */
+    void release(Glyph glyph)
+    {
+        if (size >= capacity)
+        {
+            glyph.remove();
+            return;
+        }
+        glyph.hide();
+        glyphs.computeIfAbsent(glyph.getKey(), key -> new ArrayDeque<>())
+                .push(glyph);
+        size++;
+    }
+
+    /**
+     * Gibt die Anzahl an Buchstaben zurück, die sich momentan im Vorrat
+     * befinden.
+     */
+    int size()
+    {
+        return size;
+    }
+}
@@ -25,7 +25,7 @@ public class NumberDisplay extends TextLine
 
     public NumberDisplay(Scene scene, int x, int y, int maxDigits)
     {
-        super(scene, x, y, maxDigits);
+        super(scene, x, y, maxDigits, true);
         set(0);
     }
 
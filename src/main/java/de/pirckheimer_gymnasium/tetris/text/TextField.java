@@ -23,6 +23,11 @@ import de.pirckheimer_gymnasium.engine_pi.Scene;
 /**
  * Ein rechteckiges Feld, in das mit den typischen Tetris-Buchstaben geschrieben
  * werden kann.
+ *
+ * <p>
+ * Die Zeilen des Textfelds werden beim ersten Schreiben einmalig erzeugt und
+ * bei jedem weiteren Schreiben wiederverwendet.
+ * </p>
  */
 public class TextField
 {
@@ -59,6 +64,13 @@ public class TextField
      */
     private TextLine[] textLines;
 
+    /**
+     * Der Vorrat an ausgeblendeten Buchstaben, den sich alle Zeilen teilen,
+     * oder {@code null}, wenn das Textfeld nicht im Vorratsmodus betrieben
+     * wird.
+     */
+    private GlyphPool pool;
+
     /**
      *
      * @param scene Eine Referenz auf die {@link Scene Szene}, in der das
@@ -73,6 +85,32 @@ public class TextField
      */
     public TextField(Scene scene, int x, int y, int lines, int width)
     {
+        this(scene, x, y, lines, width, false);
+    }
+
+    /**
+     *
+     * @param scene  Eine Referenz auf die {@link Scene Szene}, in der das
+     *               Textfeld angezeigt werden soll.
+     * @param x      Die x-Koordinate des linken oberen Ecks des Textfelds, in
+     *               das geschrieben werden soll.
+     * @param y      Die y-Koordinate des linken oberen Ecks des Textfelds, in
+     *               das geschrieben werden soll.
+     * @param lines  Die Anzahl an Zeilen, die das Textfeld maximal enthalten
+     *               darf.
+     * @param width  Die Anzahl an Buchstaben, die in eine Zeile passen.
+     * @param pooled Ob nicht mehr benötigte Buchstaben in einem gemeinsamen
+     *               Vorrat aufbewahrt und wiederverwendet werden sollen. Der
+     *               Vorrat fasst höchstens so viele Buchstaben, wie in das
+     *               Textfeld passen.
+     */
+    public TextField(Scene scene, int x, int y, int lines, int width,
+            boolean pooled)
+    {
+        if (pooled)
+        {
+            pool = new GlyphPool(scene, lines * width);
+        }
         this.scene = scene;
         this.x = x;
         this.y = y;
@@ -83,11 +121,11 @@ public class TextField
 
     public void write(String text, Color color)
     {
-        clear();
         // Ist der Text null oder eine Zeichenkette mit keinem Zeichen, zeichnen
         // wir keinen Text und verlassen die Methode vorzeitig.
         if (text == null || text.length() == 0)
         {
+            clear();
             return;
         }
         if (text.length() > lines * width)
@@ -97,12 +135,32 @@ public class TextField
         int lineIndex = 0;
         for (int i = 0; i < text.length(); i += width)
         {
-            TextLine line = new TextLine(scene, x, y - lineIndex, width);
-            line.write(text.substring(i, Math.min(text.length(), i + width)),
+            getLine(lineIndex).write(
+                    text.substring(i, Math.min(text.length(), i + width)),
                     color, TextAlignment.LEFT);
-            textLines[lineIndex] = line;
             lineIndex++;
         }
+        // Zeilen, die beim vorherigen Schreiben noch benötigt wurden, leeren.
+        for (; lineIndex < lines; lineIndex++)
+        {
+            if (textLines[lineIndex] != null)
+            {
+                textLines[lineIndex].clear();
+            }
+        }
+    }
+
+    /**
+     * Gibt die Zeile mit dem angegebenen Index zurück. Die Zeile wird beim
+     * ersten Zugriff erzeugt.
+     */
+    private TextLine getLine(int index)
+    {
+        if (textLines[index] == null)
+        {
+            textLines[index] = new TextLine(scene, x, y - index, width, pool);
+        }
+        return textLines[index];
     }
 
     /**
@@ -26,6 +26,20 @@ import de.pirckheimer_gymnasium.engine_pi.util.ColorUtil;
 /**
  * Ein rechteckiges Feld, in das mit den typischen Tetris-Buchstaben geschrieben
  * werden kann.
+ *
+ * <p>
+ * Die Textzeile merkt sich, welcher Buchstabe in welcher Farbe an jeder
+ * Position steht. Beim erneuten Schreiben werden nur die Buchstaben
+ * ausgetauscht, die sich geändert haben. Ändert sich z. B. bei einer
+ * Punkteanzeige nur die letzte Ziffer, so wird nur eine Glyphe aus der Szene
+ * entfernt und eine neue eingefügt.
+ * </p>
+ *
+ * <p>
+ * Im Vorratsmodus (siehe {@link #TextLine(Scene, int, int, int, boolean)})
+ * werden nicht mehr benötigte Buchstaben nur ausgeblendet und in einem
+ * {@link GlyphPool Vorrat} für spätere Schreibvorgänge aufbewahrt.
+ * </p>
  */
 public class TextLine
 {
@@ -57,6 +71,24 @@ public class TextLine
      */
     private Glyph[] glyphs;
 
+    /**
+     * Die Buchstaben, die momentan an den einzelnen Positionen stehen. Eine
+     * leere Position hat den Wert {@code 0}.
+     */
+    private char[] chars;
+
+    /**
+     * Die Farben der Buchstaben, die momentan an den einzelnen Positionen
+     * stehen.
+     */
+    private Color[] colors;
+
+    /**
+     * Der Vorrat an ausgeblendeten Buchstaben oder {@code null}, wenn die
+     * Textzeile nicht im Vorratsmodus betrieben wird.
+     */
+    private GlyphPool pool;
+
     /**
      *
      * @param scene Eine Referenz auf die {@link Scene Szene}, in der das
@@ -69,11 +101,43 @@ public class TextLine
      */
     public TextLine(Scene scene, int x, int y, int width)
     {
+        this(scene, x, y, width, (GlyphPool) null);
+    }
+
+    /**
+     *
+     * @param scene  Eine Referenz auf die {@link Scene Szene}, in der das
+     *               Textfeld angezeigt werden soll.
+     * @param x      Die x-Koordinate des linken unteren Ecks der Textzeile, in
+     *               das geschrieben werden soll.
+     * @param y      Die y-Koordinate des linken unteren Ecks der Textzeile, in
+     *               das geschrieben werden soll.
+     * @param width  Die Anzahl an Buchstaben, die in eine Zeile passen soll.
+     * @param pooled Ob nicht mehr benötigte Buchstaben in einem Vorrat
+     *               aufbewahrt und wiederverwendet werden sollen. Der Vorrat
+     *               fasst höchstens doppelt so viele Buchstaben, wie in die
+     *               Zeile passen.
+     */
+    public TextLine(Scene scene, int x, int y, int width, boolean pooled)
+    {
+        this(scene, x, y, width,
+                pooled ? new GlyphPool(scene, 2 * width) : null);
+    }
+
+    /**
+     * @param pool Der Vorrat an ausgeblendeten Buchstaben, den sich mehrere
+     *             Textzeilen teilen können, oder {@code null}.
+     */
+    TextLine(Scene scene, int x, int y, int width, GlyphPool pool)
+    {
+        this.pool = pool;
         this.scene = scene;
         this.x = x;
         this.y = y;
         this.width = width;
         glyphs = new Glyph[width];
+        chars = new char[width];
+        colors = new Color[width];
         if (Game.isDebug())
         {
             Rectangle rectangle = new Rectangle(width, 1);
@@ -85,13 +149,11 @@ public class TextLine
 
     public void write(String text, Color color, TextAlignment alignment)
     {
-        // Die Zeichen löschen, die in einem früheren Aufruf eingezeichnet
-        // wurden.
-        clear();
         // Ist der Text null oder eine Zeichenkette mit keinem Zeichen, zeichnen
         // wir keinen Text und verlassen die Methode vorzeitig.
         if (text == null || text.length() == 0)
         {
+            clear();
             return;
         }
         // Wir werfen eine Ausnahme, falls der Text nicht in die Zeile passt.
@@ -109,26 +171,68 @@ public class TextLine
         {
             startIndex = width - text.length();
         }
-        int charIndex = 0;
-        for (int i = startIndex; i < text.length() + startIndex; i++)
+        for (int i = 0; i < width; i++)
         {
-            glyphs[i] = new Glyph(this.scene, text.charAt(charIndex), color,
-                    x + i, y);
-            charIndex++;
+            char glyph = 0;
+            if (i >= startIndex && i < startIndex + text.length())
+            {
+                glyph = text.charAt(i - startIndex);
+            }
+            setGlyph(i, glyph, color);
         }
     }
 
     /**
-     * Löscht alle Zeichen aus der Textzeile.
+     * Setzt einen Buchstaben an eine Position der Textzeile. Steht dort bereits
+     * derselbe Buchstabe in derselben Farbe, wird nichts verändert.
+     *
+     * @param index Die Position in der Textzeile.
+     * @param glyph Der Buchstabe oder {@code 0}, um die Position zu leeren.
+     * @param color Die Farbe des Buchstabens.
      */
-    public void clear()
+    private void setGlyph(int index, char glyph, Color color)
     {
-        for (Glyph glyph : glyphs)
+        if (chars[index] == glyph
+                && (glyph == 0 || color.equals(colors[index])))
+        {
+            return;
+        }
+        if (glyphs[index] != null)
+        {
+            if (pool != null)
+            {
+                pool.release(glyphs[index]);
+            }
+            else
+            {
+                glyphs[index].remove();
+            }
+            glyphs[index] = null;
+        }
+        chars[index] = glyph;
+        colors[index] = color;
+        if (glyph != 0)
         {
-            if (glyph != null)
+            if (pool != null)
             {
-                glyph.remove();
+                glyphs[index] = pool.obtain(glyph, color, x + index, y);
             }
+            else
+            {
+                glyphs[index] = new Glyph(this.scene, glyph, color, x + index,
+                        y);
+            }
+        }
+    }
+
+    /**
+     * Löscht alle Zeichen aus der Textzeile.
+     */
+    public void clear()
+    {
+        for (int i = 0; i < width; i++)
+        {
+            setGlyph(i, (char) 0, null);
         }
     }
 }
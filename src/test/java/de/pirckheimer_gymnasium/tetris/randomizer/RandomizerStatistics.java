@@ -0,0 +1,382 @@
+/*
+ * Copyright (c) 2024 Josef Friedrich and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.pirckheimer_gymnasium.tetris.randomizer;
+
+import java.util.Arrays;
+
+/**
+ * Zählt die Tetrominos und die Paare aufeinanderfolgender Tetrominos eines
+ * Zufallsgenerators und vergleicht sie mit den erwarteten Wahrscheinlichkeiten.
+ *
+ * <p>
+ * Die Ziehungen werden auf mehrere Threads verteilt. Jeder Thread erhält einen
+ * eigenen Generator mit eigenem Startwert und eigene Zähler, sodass auch
+ * Milliarden von Ziehungen ohne Synchronisation und ohne Speicherreservierung
+ * auskommen.
+ * </p>
+ *
+ * <p>
+ * Die erwarteten Wahrscheinlichkeiten hängen vom Generator ab. Der
+ * {@link GameBoyRandomizer} ist absichtlich nicht gleichverteilt, seine
+ * Wahrscheinlichkeiten werden mit
+ * {@link GameBoyRandomizer#getPairProbabilities()} exakt berechnet. Die
+ * Chi-Quadrat-Statistiken werden in {@link RandomizerStatisticsTest} mit ihren
+ * kritischen Werten verglichen.
+ * </p>
+ *
+ * @author Josef Friedrich
+ */
+class RandomizerStatistics
+{
+    /**
+     * Das Quantil der Standardnormalverteilung für das Signifikanzniveau von
+     * etwa {@code 10^-6}. Es ist so klein gewählt, weil aufeinanderfolgende
+     * Ziehungen mancher Generatoren nicht unabhängig sind und die Statistik
+     * dadurch etwas streut.
+     */
+    private static final double Z = 4.75;
+
+    private final String name;
+
+    /**
+     * Die Anzahl der Teile, auf die die Ziehungen verteilt werden. Sie ist
+     * fest, damit jeder Teil unabhängig von der Anzahl der Prozessorkerne
+     * denselben Startwert erhält.
+     */
+    private static final int PARTS = 8;
+
+    private final long[] counts = new long[7];
+
+    private final long[][] pairs = new long[7][7];
+
+    private long draws;
+
+    /**
+     * @param name Der Name des Zufallsgenerators.
+     */
+    RandomizerStatistics(String name)
+    {
+        this.name = name;
+    }
+
+    /**
+     * Zieht die angegebene Anzahl an Tetrominos mit {@link #PARTS} Generatoren
+     * in eigenen Threads. Der Generator des Teils {@code i} erhält den
+     * Startwert {@code i}.
+     *
+     * @param name  Der Name des Zufallsgenerators.
+     * @param draws Die Anzahl an Ziehungen.
+     *
+     * @return Die zusammengezählte Statistik.
+     */
+    static RandomizerStatistics collect(String name, long draws)
+            throws InterruptedException
+    {
+        RandomizerStatistics[] parts = new RandomizerStatistics[PARTS];
+        Thread[] workers = new Thread[PARTS];
+        for (int i = 0; i < PARTS; i++)
+        {
+            RandomizerStatistics part = new RandomizerStatistics(name);
+            long seed = i;
+            long share = draws / PARTS + (i < draws % PARTS ? 1 : 0);
+            parts[i] = part;
+            workers[i] = new Thread(() -> part.collect(seed, share));
+            workers[i].start();
+        }
+        RandomizerStatistics total = new RandomizerStatistics(name);
+        for (int i = 0; i < PARTS; i++)
+        {
+            workers[i].join();
+            total.add(parts[i]);
+        }
+        return total;
+    }
+
+    /**
+     * Zieht mit einem neuen Generator die angegebene Anzahl an Tetrominos und
+     * zählt sie.
+     *
+     * @param seed  Der Startwert des Generators.
+     * @param draws Die Anzahl an Ziehungen.
+     */
+    void collect(long seed, long draws)
+    {
+        if (draws <= 0)
+        {
+            return;
+        }
+        Randomizer randomizer = Randomizer.create(name, seed);
+        int last = randomizer.next();
+        counts[last]++;
+        for (long i = 1; i < draws; i++)
+        {
+            int next = randomizer.next();
+            counts[next]++;
+            pairs[last][next]++;
+            last = next;
+        }
+        this.draws += draws;
+    }
+
+    /**
+     * Zählt die Ergebnisse einer anderen Statistik hinzu.
+     *
+     * @param other Eine Statistik desselben Generators.
+     */
+    void add(RandomizerStatistics other)
+    {
+        for (int i = 0; i < 7; i++)
+        {
+            counts[i] += other.counts[i];
+            for (int j = 0; j < 7; j++)
+            {
+                pairs[i][j] += other.pairs[i][j];
+            }
+        }
+        draws += other.draws;
+    }
+
+    /**
+     * Gibt die erwarteten Wahrscheinlichkeiten der Paare aufeinanderfolgender
+     * Tetrominos zurück.
+     *
+     * @param name Der Name des Zufallsgenerators.
+     *
+     * @return Die Wahrscheinlichkeiten {@code [vorheriges][nächstes]} oder
+     *         {@code null}, wenn sie nicht bekannt sind.
+     */
+    static double[][] getExpectedPairs(String name)
+    {
+        double[][] result = new double[7][7];
+        switch (name)
+        {
+        case UniformRandomizer.NAME:
+            for (double[] row : result)
+            {
+                Arrays.fill(row, 1.0 / 49);
+            }
+            return result;
+
+        case BagRandomizer.NAME:
+            // Sechs von sieben Paaren liegen im selben Beutel und sind
+            // verschieden, eines überschreitet die Grenze zweier Beutel.
+            for (int i = 0; i < 7; i++)
+            {
+                for (int j = 0; j < 7; j++)
+                {
+                    result[i][j] = (i == j ? 0 : 1.0 / 49) + 1.0 / 343;
+                }
+            }
+            return result;
+
+        case GameBoyRandomizer.NAME:
+            return GameBoyRandomizer.getPairProbabilities();
+
+        default:
+            return null;
+        }
+    }
+
+    /**
+     * Gibt die erwarteten Wahrscheinlichkeiten der einzelnen Tetrominos zurück.
+     * Sind die Paare nicht bekannt, wird eine Gleichverteilung erwartet, da
+     * kein Generator ein Tetromino dauerhaft bevorzugen soll.
+     *
+     * @param pairs Die erwarteten Wahrscheinlichkeiten der Paare oder
+     *              {@code null}.
+     *
+     * @return Die Wahrscheinlichkeiten der sieben Tetrominos.
+     */
+    private static double[] getExpectedCounts(double[][] pairs)
+    {
+        double[] result = new double[7];
+        for (int j = 0; j < 7; j++)
+        {
+            if (pairs == null)
+            {
+                result[j] = 1.0 / 7;
+                continue;
+            }
+            for (int i = 0; i < 7; i++)
+            {
+                result[j] += pairs[i][j];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Berechnet die Chi-Quadrat-Statistik beobachteter Anzahlen gegenüber
+     * erwarteten Wahrscheinlichkeiten.
+     *
+     * @return Die Statistik oder {@link Double#POSITIVE_INFINITY}, wenn ein
+     *         unmöglicher Wert beobachtet wurde.
+     */
+    private static double getChiSquared(long[] observed, double[] probabilities,
+            long total)
+    {
+        double sum = 0;
+        for (int i = 0; i < observed.length; i++)
+        {
+            double expected = probabilities[i] * total;
+            if (expected == 0)
+            {
+                if (observed[i] > 0)
+                {
+                    return Double.POSITIVE_INFINITY;
+                }
+                continue;
+            }
+            double difference = observed[i] - expected;
+            sum += difference * difference / expected;
+        }
+        return sum;
+    }
+
+    /**
+     * Gibt die Anzahl der Werte mit einer Wahrscheinlichkeit größer als
+     * {@code 0} weniger eins zurück.
+     */
+    private static int getDegreesOfFreedom(double[] probabilities)
+    {
+        int result = -1;
+        for (double probability : probabilities)
+        {
+            if (probability > 0)
+            {
+                result++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Berechnet den kritischen Wert der Chi-Quadrat-Verteilung näherungsweise
+     * nach Wilson und Hilferty.
+     *
+     * @param degreesOfFreedom Die Anzahl der Freiheitsgrade.
+     *
+     * @return Der kritische Wert zum Quantil {@link #Z}.
+     */
+    static double getCriticalValue(int degreesOfFreedom)
+    {
+        double a = 2.0 / (9 * degreesOfFreedom);
+        return degreesOfFreedom * Math.pow(1 - a + Z * Math.sqrt(a), 3);
+    }
+
+    private static long[] flatten(long[][] values)
+    {
+        long[] result = new long[49];
+        for (int i = 0; i < 7; i++)
+        {
+            System.arraycopy(values[i], 0, result, 7 * i, 7);
+        }
+        return result;
+    }
+
+    private static double[] flatten(double[][] values)
+    {
+        double[] result = new double[49];
+        for (int i = 0; i < 7; i++)
+        {
+            System.arraycopy(values[i], 0, result, 7 * i, 7);
+        }
+        return result;
+    }
+
+    /**
+     * Gibt die Anzahl der Ziehungen zurück.
+     *
+     * @return Die Anzahl der Ziehungen.
+     */
+    long getDraws()
+    {
+        return draws;
+    }
+
+    /**
+     * Berechnet die Chi-Quadrat-Statistik der Häufigkeiten der Tetrominos.
+     *
+     * @return Die Statistik.
+     */
+    double getCountsChiSquared()
+    {
+        return getChiSquared(counts, getExpectedCounts(getExpectedPairs(name)),
+                draws);
+    }
+
+    /**
+     * Gibt den kritischen Wert für {@link #getCountsChiSquared()} zurück.
+     *
+     * @return Der kritische Wert.
+     */
+    double getCountsCriticalValue()
+    {
+        return getCriticalValue(
+                getDegreesOfFreedom(getExpectedCounts(getExpectedPairs(name))));
+    }
+
+    /**
+     * Berechnet die Chi-Quadrat-Statistik der Häufigkeiten der Paare.
+     *
+     * @return Die Statistik oder {@link Double#NaN}, wenn für die Paare keine
+     *         Verteilung bekannt ist.
+     */
+    double getPairsChiSquared()
+    {
+        double[][] expectedPairs = getExpectedPairs(name);
+        if (expectedPairs == null)
+        {
+            return Double.NaN;
+        }
+        return getChiSquared(flatten(pairs), flatten(expectedPairs),
+                draws - getPairlessDraws());
+    }
+
+    /**
+     * Gibt den kritischen Wert für {@link #getPairsChiSquared()} zurück.
+     *
+     * @return Der kritische Wert oder {@link Double#NaN}, wenn für die Paare
+     *         keine Verteilung bekannt ist.
+     */
+    double getPairsCriticalValue()
+    {
+        double[][] expectedPairs = getExpectedPairs(name);
+        if (expectedPairs == null)
+        {
+            return Double.NaN;
+        }
+        return getCriticalValue(getDegreesOfFreedom(flatten(expectedPairs)));
+    }
+
+    /**
+     * Gibt die Anzahl der Ziehungen zurück, die kein Paar bilden, also die
+     * erste Ziehung jedes Generators.
+     */
+    private long getPairlessDraws()
+    {
+        long total = 0;
+        for (long[] row : pairs)
+        {
+            for (long count : row)
+            {
+                total += count;
+            }
+        }
+        return draws - total;
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2024 Josef Friedrich and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.pirckheimer_gymnasium.tetris.randomizer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Überprüft die Verteilungen der Zufallsgeneratoren mit einem Chi-Quadrat-Test.
+ *
+ * <p>
+ * Die Startwerte sind fest, die Ergebnisse daher reproduzierbar. Standardmäßig
+ * werden je Generator zwei Millionen Tetrominos gezogen. Das Profil
+ * {@code statistics} erhöht die Anzahl über die Systemeigenschaft
+ * {@code tetris.statistics.draws} auf eine Milliarde:
+ * {@code mvn test -Pstatistics}.
+ * </p>
+ *
+ * @author Josef Friedrich
+ */
+public class RandomizerStatisticsTest
+{
+    private static final long DRAWS = Long.getLong("tetris.statistics.draws",
+            2_000_000L);
+
+    private static void assertDistribution(String name)
+            throws InterruptedException
+    {
+        RandomizerStatistics statistics = RandomizerStatistics.collect(name,
+                DRAWS);
+        assertEquals(DRAWS, statistics.getDraws());
+        double chiSquared = statistics.getCountsChiSquared();
+        double critical = statistics.getCountsCriticalValue();
+        assertTrue(chiSquared <= critical,
+                "Die Häufigkeiten der Tetrominos weichen ab: " + name
+                        + ", Chi-Quadrat " + chiSquared + " > " + critical);
+        if (RandomizerStatistics.getExpectedPairs(name) == null)
+        {
+            return;
+        }
+        chiSquared = statistics.getPairsChiSquared();
+        critical = statistics.getPairsCriticalValue();
+        assertTrue(chiSquared <= critical,
+                "Die Häufigkeiten der Paare weichen ab: " + name
+                        + ", Chi-Quadrat " + chiSquared + " > " + critical);
+    }
+
+    /**
+     * Überprüft, ob ein wiederhergestellter Zustand dieselbe Folge liefert.
+     */
+    private static void assertState(String name)
+    {
+        Randomizer randomizer = Randomizer.create(name, 42);
+        for (int i = 0; i < 1000; i++)
+        {
+            randomizer.next();
+        }
+        long[] state = randomizer.getState();
+        int[] expected = new int[1000];
+        for (int i = 0; i < expected.length; i++)
+        {
+            expected[i] = randomizer.next();
+        }
+        Randomizer restored = Randomizer.create(name, 0);
+        restored.setState(state);
+        int[] actual = new int[expected.length];
+        for (int i = 0; i < actual.length; i++)
+        {
+            actual[i] = restored.next();
+        }
+        assertArrayEquals(expected, actual,
+                "Der wiederhergestellte Zustand liefert eine andere Folge: "
+                        + name);
+    }
+
+    @Test
+    public void testUniform() throws InterruptedException
+    {
+        assertDistribution(UniformRandomizer.NAME);
+        assertState(UniformRandomizer.NAME);
+    }
+
+    @Test
+    public void testGameBoy() throws InterruptedException
+    {
+        assertDistribution(GameBoyRandomizer.NAME);
+        assertState(GameBoyRandomizer.NAME);
+    }
+
+    @Test
+    public void testBag() throws InterruptedException
+    {
+        assertDistribution(BagRandomizer.NAME);
+        assertState(BagRandomizer.NAME);
+    }
+
+    @Test
+    public void testHistory() throws InterruptedException
+    {
+        assertDistribution(HistoryRandomizer.NAME);
+        assertState(HistoryRandomizer.NAME);
+    }
+}